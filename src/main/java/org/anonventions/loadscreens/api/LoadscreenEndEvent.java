@@ -0,0 +1,55 @@
+package org.anonventions.loadscreens.api;
+
+import org.bukkit.entity.Player;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+// Fired when a session ends. Cancelling an ENDED session keeps it on screen and the event fires again
+// on the next frame, so a listener can hold the screen until it's done. Aborts can't be cancelled.
+public class LoadscreenEndEvent extends PlayerEvent implements Cancellable {
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final String type;
+    private final SessionResult.Status status;
+    private final int ticksShown;
+    private boolean cancelled;
+
+    public LoadscreenEndEvent(Player player, String type, SessionResult.Status status, int ticksShown) {
+        super(player);
+        this.type = type;
+        this.status = status;
+        this.ticksShown = ticksShown;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public SessionResult.Status getStatus() {
+        return status;
+    }
+
+    public int getTicksShown() {
+        return ticksShown;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void setCancelled(boolean cancelled) {
+        this.cancelled = cancelled && status == SessionResult.Status.ENDED;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
@@ -0,0 +1,80 @@
+package org.anonventions.loadscreens.api;
+
+import java.util.concurrent.CompletableFuture;
+
+// Per-request overrides for LoadscreenService#show. Anything left unset falls back to the type's config.
+public class LoadscreenOptions {
+    private int delayTicks = -1;
+    private int maxTicks = -1;
+    private boolean ignoreCooldown;
+    private CompletableFuture<?> awaiting;
+    private int resumeFrame = -1, resumeTicks, resumeOpacity;
+
+    public static LoadscreenOptions defaults() {
+        return new LoadscreenOptions();
+    }
+
+    // Overrides timer_delay; 0 starts right away
+    public LoadscreenOptions delay(int ticks) {
+        this.delayTicks = ticks;
+        return this;
+    }
+
+    // Keeps the screen up until the work completes, then ends it after ready_grace_ticks. The player is
+    // left wherever the work put them, so it can be a teleport. Failed work aborts the session.
+    public LoadscreenOptions until(CompletableFuture<?> work) {
+        this.awaiting = work;
+        return this;
+    }
+
+    // Overrides ready_ceiling_ticks, the longest the screen may wait on readiness or awaited work
+    public LoadscreenOptions maxTicks(int ticks) {
+        this.maxTicks = ticks;
+        return this;
+    }
+
+    // Continues an animation from this point instead of starting it over, e.g. after a server switch
+    public LoadscreenOptions resume(int frameIndex, int ticks, int opacity) {
+        this.resumeFrame = frameIndex;
+        this.resumeTicks = ticks;
+        this.resumeOpacity = opacity;
+        return this;
+    }
+
+    public LoadscreenOptions ignoreCooldown() {
+        this.ignoreCooldown = true;
+        return this;
+    }
+
+    public int getDelayTicks() {
+        return delayTicks;
+    }
+
+    public int getMaxTicks() {
+        return maxTicks;
+    }
+
+    public boolean isIgnoreCooldown() {
+        return ignoreCooldown;
+    }
+
+    public CompletableFuture<?> getAwaiting() {
+        return awaiting;
+    }
+
+    public boolean isResume() {
+        return resumeFrame >= 0;
+    }
+
+    public int getResumeFrame() {
+        return resumeFrame;
+    }
+
+    public int getResumeTicks() {
+        return resumeTicks;
+    }
+
+    public int getResumeOpacity() {
+        return resumeOpacity;
+    }
+}
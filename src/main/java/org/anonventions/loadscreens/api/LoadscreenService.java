@@ -0,0 +1,31 @@
+package org.anonventions.loadscreens.api;
+
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.CompletableFuture;
+
+// Public entry point for other plugins, registered with Bukkit's ServicesManager:
+//   LoadscreenService service = Bukkit.getServicesManager().load(LoadscreenService.class);
+//   service.show(player, "custom", LoadscreenOptions.defaults().until(player.teleportAsync(arena)))
+//          .thenAccept(result -> startRound(player));
+// The returned futures complete on the main thread.
+public interface LoadscreenService {
+
+    CompletableFuture<SessionResult> show(Player player, String type, LoadscreenOptions options);
+
+    default CompletableFuture<SessionResult> show(Player player, String type) {
+        return show(player, type, LoadscreenOptions.defaults());
+    }
+
+    boolean isShowing(Player player);
+
+    // The type of the player's current session, or null
+    String getType(Player player);
+
+    // Plays the type's screen, then moves the player to another server behind the proxy, where the same
+    // animation carries on. Rejected if handoff is disabled.
+    CompletableFuture<SessionResult> transfer(Player player, String server, String type);
+
+    // Stops the player's session early; its future completes as ABORTED. Returns false if none was running.
+    boolean stop(Player player);
+}
@@ -0,0 +1,61 @@
+package org.anonventions.loadscreens.api;
+
+import org.bukkit.entity.Player;
+
+// How a loadscreen request turned out. Completed once per request, on the main thread.
+public class SessionResult {
+    public enum Status {
+        ENDED,      // Ran until its end tick
+        ABORTED,    // Started, then stopped early (replaced, quit, death, kick, failed work, disable)
+        REJECTED    // Never started (disabled type, cooldown, permission, session cap, cancelled start event)
+    }
+
+    private final Player player;
+    private final String type;
+    private final Status status;
+    private final String reason;
+    private final int ticksShown;
+
+    public SessionResult(Player player, String type, Status status, String reason, int ticksShown) {
+        this.player = player;
+        this.type = type;
+        this.status = status;
+        this.reason = reason;
+        this.ticksShown = ticksShown;
+    }
+
+    public static SessionResult rejected(Player player, String type, String reason) {
+        return new SessionResult(player, type, Status.REJECTED, reason, 0);
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    // Null for a normal end
+    public String getReason() {
+        return reason;
+    }
+
+    public int getTicksShown() {
+        return ticksShown;
+    }
+
+    public boolean isEnded() {
+        return status == Status.ENDED;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionResult{" + player.getName() + ", " + type + ", " + status +
+                (reason != null ? " (" + reason + ")" : "") + ", " + ticksShown + " ticks}";
+    }
+}
@@ -37,6 +37,13 @@ public class LeaveCommand implements CommandExecutor {
             return true;
         }
 
+        // On a network, send them to the configured server instead of disconnecting them
+        String leaveServer = config.getString("handoff.leave_server", "");
+        if (Loadscreens.getInstance().getHandoffManager() != null && !leaveServer.isEmpty()) {
+            Loadscreens.getInstance().getHandoffManager().transfer(player, leaveServer, "leave");
+            return true;
+        }
+
         // Show leave loadscreen and schedule disconnect
         showLeaveLoadscreenAndDisconnect(player);
 
@@ -62,10 +69,8 @@ public class LeaveCommand implements CommandExecutor {
             @Override
             public void run() {
                 if (player.isOnline()) {
-                    // Show leave loadscreen to nearby players if enabled
-                    showLeaveLoadscreenToNearbyPlayers(player);
-
-                    // Disconnect the player with a nice message
+                    // Disconnect the player with a nice message. The quit handler shows the leave
+                    // broadcast to nearby players.
                     player.kick(Component.text("Thanks for playing! See you next time!")
                             .color(NamedTextColor.YELLOW));
 
@@ -76,20 +81,4 @@ public class LeaveCommand implements CommandExecutor {
             }
         }.runTaskLater(Loadscreens.getInstance(), disconnectDelay);
     }
-
-    private void showLeaveLoadscreenToNearbyPlayers(Player leavingPlayer) {
-        var config = Loadscreens.getInstance().getConfig();
-
-        // Show leave loadscreen to other players if enabled
-        if (config.getBoolean("loadscreen_types.leave.show_to_others", false)) {
-            double range = config.getDouble("loadscreen_types.leave.show_range", 50.0);
-
-            for (Player other : leavingPlayer.getWorld().getPlayers()) {
-                if (!other.equals(leavingPlayer) &&
-                    other.getLocation().distance(leavingPlayer.getLocation()) <= range) {
-                    LoadscreenManager.showLoadscreen(other, "leave");
-                }
-            }
-        }
-    }
 }
@@ -1,7 +1,11 @@
 package org.anonventions.loadscreens.command;
 
+import org.anonventions.loadscreens.core.ConfigReloader;
 import org.anonventions.loadscreens.core.Loadscreens;
 import org.anonventions.loadscreens.util.LoadscreenManager;
+import org.anonventions.loadscreens.util.RestoreQueue;
+import org.anonventions.loadscreens.util.SessionLog;
+import org.anonventions.loadscreens.util.SessionLogAnalyzer;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -12,6 +16,7 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
@@ -34,13 +39,14 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
 
         switch (args[0].toLowerCase()) {
             case "reload":
-                Loadscreens.getInstance().reloadConfig();
-                // Reload placeholder manager if available
-                if (Loadscreens.getInstance().isPlaceholderAPIEnabled()) {
-                    Loadscreens.getInstance().getPlaceholderManager().reloadCustomPlaceholders();
-                }
-                sender.sendMessage(Component.text("Loadscreens config reloaded successfully!")
+                // Only changed types are recompiled; running loadscreens finish on the settings they started with
+                List<String> changes = ConfigReloader.reload();
+                sender.sendMessage(Component.text("Loadscreens config reloaded successfully!" + (changes.isEmpty() ? " No changes." : ""))
                         .color(NamedTextColor.GREEN));
+                for (String change : changes) {
+                    sender.sendMessage(Component.text(" - " + change)
+                            .color(NamedTextColor.GRAY));
+                }
                 break;
 
             case "test":
@@ -60,14 +66,14 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
 
             case "show":
                 if (args.length < 3) {
-                    sender.sendMessage(Component.text("Usage: /loadscreen show <player> <type> [delay]")
+                    sender.sendMessage(Component.text("Usage: /loadscreen show <player|@a|world:<name>|perm:<node>|group:<name>> <type> [delay]")
                             .color(NamedTextColor.RED));
                     return true;
                 }
 
-                Player target = Bukkit.getPlayer(args[1]);
-                if (target == null) {
-                    sender.sendMessage(Component.text("Player not found: " + args[1])
+                List<Player> targets = selectPlayers(args[1]);
+                if (targets.isEmpty()) {
+                    sender.sendMessage(Component.text("No players matched: " + args[1])
                             .color(NamedTextColor.RED));
                     return true;
                 }
@@ -75,9 +81,15 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
                 String showType = args[2];
                 int delay = args.length > 3 ? parseInt(args[3], 0) : 0;
 
-                LoadscreenManager.showLoadscreen(target, showType, delay);
-                sender.sendMessage(Component.text("Loadscreen sent to " + target.getName() + " (Type: " + showType + ", Delay: " + delay + ")")
-                        .color(NamedTextColor.GREEN));
+                if (targets.size() == 1) {
+                    LoadscreenManager.showLoadscreen(targets.get(0), showType, delay);
+                    sender.sendMessage(Component.text("Loadscreen sent to " + targets.get(0).getName() + " (Type: " + showType + ", Delay: " + delay + ")")
+                            .color(NamedTextColor.GREEN));
+                } else {
+                    LoadscreenManager.showGroup(targets, showType, delay);
+                    sender.sendMessage(Component.text("Loadscreen sent to " + targets.size() + " players (Type: " + showType + ", Delay: " + delay + ")")
+                            .color(NamedTextColor.GREEN));
+                }
                 break;
 
             case "stop":
@@ -147,6 +159,10 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
                 sendTypes(sender);
                 break;
 
+            case "analyze":
+                analyze(sender, args.length > 1 ? args[1] : null);
+                break;
+
             case "version":
                 sendVersion(sender);
                 break;
@@ -213,6 +229,8 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
                 .color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("║ /loadscreen show <player> <type> [delay] - Show to player   ║")
                 .color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("║   <player>: @a, world:<name>, perm:<node>, group:<name>     ║")
+                .color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("║ /loadscreen stop [player] - Stop loadscreen                 ║")
                 .color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("║ /loadscreen stopall - Stop all loadscreens                  ║")
@@ -223,6 +241,8 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
                 .color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("║ /loadscreen types - List available types                    ║")
                 .color(NamedTextColor.YELLOW));
+        sender.sendMessage(Component.text("║ /loadscreen analyze [type] - Session log percentiles        ║")
+                .color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("║ /loadscreen version - Show version info                     ║")
                 .color(NamedTextColor.YELLOW));
         sender.sendMessage(Component.text("║ /loadscreen debug - Toggle debug mode                       ║")
@@ -274,6 +294,10 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
                 .color(NamedTextColor.GRAY));
         sender.sendMessage(Component.text("║ Max Concurrent: " + Loadscreens.getInstance().getConfig().getInt("global.max_concurrent_sessions") + "                                       ║")
                 .color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("║ Queued Restores: " + RestoreQueue.getPendingCount() + "                                        ║")
+                .color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("║ Broadcasts: " + LoadscreenManager.getBroadcastCount() + "                                             ║")
+                .color(NamedTextColor.GRAY));
 
         // Show memory usage
         long totalMemory = Runtime.getRuntime().totalMemory() / (1024 * 1024);
@@ -283,6 +307,14 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(Component.text("║ Memory Usage: " + usedMemory + "MB / " + totalMemory + "MB                            ║")
                 .color(NamedTextColor.GRAY));
 
+        // Placeholder cache stats
+        var cache = Loadscreens.getInstance().getPlaceholderManager().getCache();
+        sender.sendMessage(Component.text("║ Placeholder Cache: " + cache.size() + " entries, " +
+                        String.format("%.1f", cache.getHitRate() * 100) + "% hits (" + cache.getHits() + "/" + (cache.getHits() + cache.getMisses()) + ")")
+                .color(NamedTextColor.GRAY));
+        sender.sendMessage(Component.text("║ Cache Evictions: " + cache.getEvictions() + ", Expired: " + cache.getExpirations())
+                .color(NamedTextColor.GRAY));
+
         // PacketEvents stats
         if (Loadscreens.getInstance().isPacketEventsEnabled()) {
             int blockedPlayers = 0;
@@ -332,6 +364,29 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
                 .color(NamedTextColor.GOLD));
     }
 
+    private void analyze(CommandSender sender, String type) {
+        sender.sendMessage(Component.text("Analyzing session log" + (type != null ? " for '" + type + "'" : "") + "...")
+                .color(NamedTextColor.YELLOW));
+
+        // The log can be large, so read it off the main thread and report back on it
+        Bukkit.getScheduler().runTaskAsynchronously(Loadscreens.getInstance(), () -> {
+            List<String> lines;
+            try {
+                SessionLog.flush();
+                lines = new SessionLogAnalyzer().analyze(SessionLog.getDirectory(), type);
+            } catch (IOException e) {
+                lines = List.of("Failed to read the session log: " + e.getMessage());
+            }
+
+            List<String> report = lines;
+            Bukkit.getScheduler().runTask(Loadscreens.getInstance(), () -> {
+                for (String line : report) {
+                    sender.sendMessage(Component.text(line).color(NamedTextColor.GRAY));
+                }
+            });
+        });
+    }
+
     private void sendVersion(CommandSender sender) {
         sender.sendMessage(Component.text("╔══════════════════════════════════════════════════════════════╗")
                 .color(NamedTextColor.GOLD));
@@ -395,8 +450,8 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
     }
 
     private void clearCache(CommandSender sender) {
+        Loadscreens.getInstance().getPlaceholderManager().clearCache();
         if (Loadscreens.getInstance().isPlaceholderAPIEnabled()) {
-            Loadscreens.getInstance().getPlaceholderManager().clearCache();
             sender.sendMessage(Component.text("Placeholder cache cleared successfully!")
                     .color(NamedTextColor.GREEN));
         } else {
@@ -420,7 +475,7 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
         }
 
         if (args.length == 1) {
-            return Arrays.asList("reload", "test", "show", "stop", "stopall", "info", "stats", "types", "version", "debug", "clear", "hotreload")
+            return Arrays.asList("reload", "test", "show", "stop", "stopall", "info", "stats", "types", "analyze", "version", "debug", "clear", "hotreload")
                     .stream()
                     .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
@@ -429,13 +484,19 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
         if (args.length == 2) {
             switch (args[0].toLowerCase()) {
                 case "test":
+                case "analyze":
                     return getLoadscreenTypes().stream()
                             .filter(s -> s.toLowerCase().startsWith(args[1].toLowerCase()))
                             .collect(Collectors.toList());
 
                 case "show":
-                    return Bukkit.getOnlinePlayers().stream()
-                            .map(Player::getName)
+                    List<String> selectors = new ArrayList<>();
+                    selectors.add("@a");
+                    Bukkit.getWorlds().forEach(world -> selectors.add("world:" + world.getName()));
+                    selectors.add("perm:");
+                    selectors.add("group:");
+                    Bukkit.getOnlinePlayers().forEach(online -> selectors.add(online.getName()));
+                    return selectors.stream()
                             .filter(name -> name.toLowerCase().startsWith(args[1].toLowerCase()))
                             .collect(Collectors.toList());
 
@@ -463,6 +524,35 @@ public class LoadscreenCommand implements CommandExecutor, TabCompleter {
         return new ArrayList<>();
     }
 
+    // A player name, @a, world:<name>, perm:<node>, or group:<name> for the group.<name> permission
+    // that permission plugins such as LuckPerms grant to group members
+    private List<Player> selectPlayers(String selector) {
+        List<Player> players = new ArrayList<>();
+        String lower = selector.toLowerCase();
+
+        if (lower.equals("@a")) {
+            players.addAll(Bukkit.getOnlinePlayers());
+        } else if (lower.startsWith("world:")) {
+            var world = Bukkit.getWorld(selector.substring(6));
+            if (world != null) {
+                players.addAll(world.getPlayers());
+            }
+        } else if (lower.startsWith("perm:") || lower.startsWith("group:")) {
+            String node = lower.startsWith("perm:") ? selector.substring(5) : "group." + selector.substring(6);
+            if (!node.isEmpty() && !node.equals("group.")) {
+                for (Player online : Bukkit.getOnlinePlayers()) {
+                    if (online.hasPermission(node)) players.add(online);
+                }
+            }
+        } else {
+            Player player = Bukkit.getPlayer(selector);
+            if (player != null) {
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
     private List<String> getLoadscreenTypes() {
         List<String> types = new ArrayList<>();
         var config = Loadscreens.getInstance().getConfig();
@@ -0,0 +1,130 @@
+package org.anonventions.loadscreens.core;
+
+import org.anonventions.loadscreens.util.RegionIndex;
+import org.anonventions.loadscreens.util.SeenStores;
+import org.anonventions.loadscreens.util.SessionLog;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reloads config.yml in place. The old and new files are compared section by section, and only what
+// changed is rebuilt: each changed loadscreen type gets freshly compiled frames, swapped in once they
+// are ready. Sessions read their type's settings and frame source when they start, so running sessions
+// finish on the profile they started with and only new ones see the change. Nobody is stopped or
+// restored, and PacketEvents and the listeners are left alone.
+public class ConfigReloader {
+    private static final String TYPES = "loadscreen_types";
+    private static final String[] SECTIONS = {"global", "packet_settings", "display_settings", "placeholders",
+            "performance", "regions", "analytics", "handoff"};
+
+    // Returns a line per change, empty when the file was unchanged
+    public static List<String> reload() {
+        Loadscreens plugin = Loadscreens.getInstance();
+        Map<String, Map<String, Object>> before = snapshot(plugin.getConfig());
+        plugin.reloadConfig();
+        Map<String, Map<String, Object>> after = snapshot(plugin.getConfig());
+
+        Set<String> changed = new HashSet<>();
+        for (String key : before.keySet()) {
+            if (!before.get(key).equals(after.get(key))) changed.add(key);
+        }
+        for (String key : after.keySet()) {
+            if (!before.containsKey(key)) changed.add(key);
+        }
+
+        List<String> report = new ArrayList<>();
+        Set<String> changedTypes = new HashSet<>();
+        Set<String> removedTypes = new HashSet<>();
+        for (String key : changed) {
+            if (!key.startsWith(TYPES + ".")) continue;
+            String type = key.substring(TYPES.length() + 1);
+            if (after.containsKey(key)) {
+                changedTypes.add(type);
+                report.add((before.containsKey(key) ? "Recompiled type " : "Added type ") + type);
+            } else {
+                removedTypes.add(type);
+                report.add("Removed type " + type);
+            }
+        }
+
+        // A frame file edited in place leaves config.yml as it was, so it's compared with what its source scanned
+        var placeholders = plugin.getPlaceholderManager();
+        for (String type : placeholders.staleFrameSources()) {
+            if (!removedTypes.contains(type) && changedTypes.add(type)) {
+                report.add("Reindexed frame file for " + type);
+            }
+        }
+
+        // Custom placeholders are folded into every compiled frame, so a change there recompiles them all.
+        // They are compared after merging, since dictionary files outside config.yml count too.
+        if (placeholders.reloadCustomPlaceholdersIfChanged()) {
+            report.add("Recompiled all types for new custom placeholders");
+        } else {
+            placeholders.reloadFrameSources(changedTypes, removedTypes);
+            if (changed.contains("placeholders") || changed.contains("performance")) {
+                placeholders.reloadSettings();
+                report.add("Applied placeholder and cache settings");
+            }
+        }
+
+        if (!changedTypes.isEmpty()) {
+            // Opens stores for types that became show_once or moved to a new content_version
+            SeenStores.loadConfigured();
+        }
+        if (changed.contains("regions")) {
+            RegionIndex.loadConfigured();
+            report.add("Rebuilt region index");
+        }
+        if (changed.contains("analytics")) {
+            SessionLog.shutdown();
+            SessionLog.start();
+            report.add("Restarted session log");
+        }
+        if (changed.contains("handoff")) {
+            plugin.restartHandoff();
+            report.add("Restarted proxy handoff");
+        }
+        for (String section : new String[]{"global", "packet_settings", "display_settings"}) {
+            if (changed.contains(section)) report.add("Updated " + section);
+        }
+
+        if (plugin.getConfig().getBoolean("global.debug", false)) {
+            plugin.getLogger().info("Config reload: " + (report.isEmpty() ? "no changes" : String.join(", ", report)));
+        }
+        return report;
+    }
+
+    // Leaf values per section, keyed by section path. Nested sections are left out of the maps because
+    // they don't compare by value; custom_placeholders is left out since it's compared on its own.
+    private static Map<String, Map<String, Object>> snapshot(ConfigurationSection config) {
+        Map<String, Map<String, Object>> sections = new HashMap<>();
+        for (String name : SECTIONS) {
+            sections.put(name, leaves(config.getConfigurationSection(name), name.equals("placeholders") ? "custom_placeholders" : null));
+        }
+
+        ConfigurationSection types = config.getConfigurationSection(TYPES);
+        if (types != null) {
+            for (String type : types.getKeys(false)) {
+                sections.put(TYPES + "." + type, leaves(types.getConfigurationSection(type), null));
+            }
+        }
+        return sections;
+    }
+
+    private static Map<String, Object> leaves(ConfigurationSection section, String skip) {
+        Map<String, Object> values = new HashMap<>();
+        if (section == null) return values;
+
+        for (Map.Entry<String, Object> entry : section.getValues(true).entrySet()) {
+            if (entry.getValue() instanceof ConfigurationSection) continue;
+            if (skip != null && (entry.getKey().equals(skip) || entry.getKey().startsWith(skip + "."))) continue;
+            values.put(entry.getKey(), entry.getValue());
+        }
+        return values;
+    }
+}
@@ -1,30 +1,73 @@
 package org.anonventions.loadscreens.core;
 
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import org.anonventions.loadscreens.handoff.HandoffManager;
+import org.anonventions.loadscreens.util.FanoutGroup;
 import org.anonventions.loadscreens.util.LoadscreenManager;
+import org.anonventions.loadscreens.util.PlayerGrid;
+import org.anonventions.loadscreens.util.RegionIndex;
+import org.anonventions.loadscreens.util.SeenStores;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.*;
 import org.bukkit.event.entity.PlayerDeathEvent;
-import org.bukkit.Location;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
 import org.bukkit.scheduler.BukkitRunnable;
 
+import java.util.List;
+
 public class LoadscreenListener implements Listener {
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        // Off the main thread already, so show_once lookups happen here instead of on join
+        SeenStores.prefetch(event.getUniqueId());
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
+        PlayerGrid.update(event.getPlayer(), event.getPlayer().getLocation());
+
+        // Joining inside a region doesn't count as entering it
+        if (!RegionIndex.isEmpty()) {
+            RegionIndex.update(event.getPlayer(), event.getPlayer().getLocation());
+        }
+
         var config = Loadscreens.getInstance().getConfig();
         if (!config.getBoolean("global.enabled")) return;
 
+        // A screen handed off from another server carries on instead of the join screen
+        HandoffManager handoff = Loadscreens.getInstance().getHandoffManager();
+        if (handoff != null && handoff.resumePending(event.getPlayer())) return;
+
         if (config.getBoolean("loadscreen_types.join.show_on_join", true)) {
             // Let LoadscreenManager handle the timer_delay from config
             LoadscreenManager.showLoadscreen(event.getPlayer(), "join");
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onResourcePackStatus(PlayerResourcePackStatusEvent event) {
+        // Lets a join screen waiting on the pack switch to its glyph animation
+        LoadscreenManager.handleResourcePackStatus(event.getPlayer(), event.getStatus());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        // Grouped loadscreens send this tick's frames once every member has produced them
+        FanoutGroup.flushAll();
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
+        PlayerGrid.remove(event.getPlayer());
+
         var config = Loadscreens.getInstance().getConfig();
         if (!config.getBoolean("global.enabled")) return;
 
@@ -50,22 +93,78 @@ public class LoadscreenListener implements Listener {
         // This prevents stale data from interfering when they rejoin
         LoadscreenManager.cleanupPlayerData(player);
 
-        // Show leave loadscreen to other players if enabled
+        // Show leave loadscreen to other players if enabled, as one broadcast they all watch
         if (config.getBoolean("loadscreen_types.leave.show_to_others", false)) {
             double range = config.getDouble("loadscreen_types.leave.show_range", 50.0);
-            Location playerLoc = player.getLocation();
+            LoadscreenManager.broadcast(player, "leave", range);
+        }
+    }
 
-            for (org.bukkit.entity.Player other : player.getWorld().getPlayers()) {
-                if (!other.equals(player) &&
-                        other.getLocation().distance(playerLoc) <= range) {
-                    LoadscreenManager.showLoadscreen(other, "leave");
-                }
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        // Most move events are within one block; the grid and regions only change when a boundary is crossed
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ()
+                && from.getWorld() == to.getWorld()) return;
+
+        Player player = event.getPlayer();
+        PlayerGrid.update(player, to);
+        updateRegions(player, to, false);
+    }
+
+    // Records which regions the player is in at this location and shows the first one they just entered.
+    // Teleports and respawns pass their destination before the player is there, so those screens start
+    // a tick later, once the session would capture where the player actually is.
+    private void updateRegions(Player player, Location location, boolean deferred) {
+        if (RegionIndex.isEmpty()) return;
+
+        List<RegionIndex.Region> entered = RegionIndex.update(player, location);
+        if (entered.isEmpty() || !Loadscreens.getInstance().getConfig().getBoolean("global.enabled")) return;
+
+        RegionIndex.Region region = entered.get(0);
+        if (!deferred) {
+            showRegion(player, region);
+            return;
+        }
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                showRegion(player, region);
+            }
+        }.runTaskLater(Loadscreens.getInstance(), 1L);
+    }
+
+    private void showRegion(Player player, RegionIndex.Region region) {
+        // A player already behind a screen (or locked in place by one) doesn't get another
+        if (!player.isOnline() || LoadscreenManager.hasActiveLoadscreen(player)) return;
+
+        if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+            Loadscreens.getInstance().getLogger().info(player.getName() + " entered region '" + region.getName() + "'");
+        }
+        LoadscreenManager.showLoadscreen(player, region.getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent event) {
+        // Riders don't fire move events of their own
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() >> 5 == to.getBlockX() >> 5 && from.getBlockZ() >> 5 == to.getBlockZ() >> 5) return;
+
+        for (Entity passenger : event.getVehicle().getPassengers()) {
+            if (passenger instanceof Player) {
+                PlayerGrid.update((Player) passenger, to);
             }
         }
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        // Portals don't fire the teleport handler below, so regions in the new world are checked here
+        PlayerGrid.update(event.getPlayer(), event.getPlayer().getLocation());
+        updateRegions(event.getPlayer(), event.getPlayer().getLocation(), false);
+
         var config = Loadscreens.getInstance().getConfig();
         if (!config.getBoolean("global.enabled")) return;
 
@@ -82,16 +181,45 @@ public class LoadscreenListener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerPortal(PlayerPortalEvent event) {
+        preloadTeleportDestination(event);
+    }
+
+    // Runs before the player moves, so the destination starts loading ahead of the world_change screen
+    private void preloadTeleportDestination(PlayerTeleportEvent event) {
+        var config = Loadscreens.getInstance().getConfig();
+        if (!config.getBoolean("global.enabled") || event.getTo() == null) return;
+
+        boolean worldChange = event.getFrom().getWorld() != event.getTo().getWorld();
+        boolean screenFollows = worldChange
+                ? config.getBoolean("loadscreen_types.world_change.show_on_world_change", false)
+                : config.getBoolean("loadscreen_types.world_change.show_on_teleport", false)
+                        && event.getFrom().distance(event.getTo()) >= config.getDouble("loadscreen_types.world_change.min_teleport_distance", 100.0);
+        if (screenFollows) {
+            LoadscreenManager.preloadDestination(event.getPlayer(), "world_change", event.getTo());
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerTeleport(PlayerTeleportEvent event) {
+        // Teleports don't fire a move event, so the grid and regions follow them here
+        if (!event.isCancelled() && event.getTo() != null) {
+            PlayerGrid.update(event.getPlayer(), event.getTo());
+            updateRegions(event.getPlayer(), event.getTo(), true);
+        }
+
         var config = Loadscreens.getInstance().getConfig();
         if (!config.getBoolean("global.enabled")) return;
+        if (!event.isCancelled()) {
+            preloadTeleportDestination(event);
+        }
 
         if (config.getBoolean("loadscreen_types.world_change.show_on_teleport", false)) {
-            // Check minimum distance
+            // Check minimum distance, within the same world; world changes have their own trigger
             double minDistance = config.getDouble("loadscreen_types.world_change.min_teleport_distance", 100.0);
 
-            if (event.getFrom().distance(event.getTo()) >= minDistance) {
+            if (event.getFrom().getWorld() == event.getTo().getWorld() && event.getFrom().distance(event.getTo()) >= minDistance) {
                 // Small delay to let teleport complete
                 new BukkitRunnable() {
                     @Override
@@ -107,10 +235,16 @@ public class LoadscreenListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerRespawn(PlayerRespawnEvent event) {
+        PlayerGrid.update(event.getPlayer(), event.getRespawnLocation());
+        updateRegions(event.getPlayer(), event.getRespawnLocation(), true);
+
         var config = Loadscreens.getInstance().getConfig();
         if (!config.getBoolean("global.enabled")) return;
 
         if (config.getBoolean("loadscreen_types.respawn.show_on_respawn", false)) {
+            // The player hasn't moved yet, so the spawn point can start loading now
+            LoadscreenManager.preloadDestination(event.getPlayer(), "respawn", event.getRespawnLocation());
+
             // Delay to let respawn settle
             new BukkitRunnable() {
                 @Override
@@ -3,21 +3,33 @@ package org.anonventions.loadscreens.core;
 import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketListenerPriority;
 import io.github.retrooper.packetevents.factory.spigot.SpigotPacketEventsBuilder;
+import org.anonventions.loadscreens.api.LoadscreenService;
 import org.anonventions.loadscreens.command.LoadscreenCommand;
 import org.anonventions.loadscreens.command.LeaveCommand;
+import org.anonventions.loadscreens.handoff.HandoffManager;
 import org.anonventions.loadscreens.util.LoadscreenManager;
+import org.anonventions.loadscreens.util.RestoreQueue;
+import org.anonventions.loadscreens.util.PlayerGrid;
+import org.anonventions.loadscreens.util.RegionIndex;
+import org.anonventions.loadscreens.util.SeenStores;
+import org.anonventions.loadscreens.util.SessionLog;
 import org.anonventions.loadscreens.depends.PacketManager;
 import org.anonventions.loadscreens.depends.PlaceholderManager;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.bukkit.event.HandlerList;
 import org.bukkit.Bukkit;
 
+import java.util.List;
+
 public class Loadscreens extends JavaPlugin {
     private static Loadscreens instance;
     private boolean packetEventsEnabled = false;
     private boolean placeholderAPIEnabled = false;
     private PlaceholderManager placeholderManager;
     private PacketManager packetManager;
+    private LoadscreenService service;
+    private HandoffManager handoffManager;
 
     public static Loadscreens getInstance() {
         return instance;
@@ -47,10 +59,10 @@ public class Loadscreens extends JavaPlugin {
         // Check dependencies
         checkDependencies();
 
-        // Initialize managers
-        if (placeholderAPIEnabled) {
-            placeholderManager = new PlaceholderManager();
-        }
+        // Initialize managers. The placeholder manager also handles built-in placeholders, so it is
+        // needed with or without PlaceholderAPI.
+        placeholderManager = new PlaceholderManager();
+        placeholderManager.openFrameSources();
 
         if (packetEventsEnabled) {
             packetManager = new PacketManager();
@@ -58,9 +70,24 @@ public class Loadscreens extends JavaPlugin {
             PacketEvents.getAPI().init();
         }
 
+        // Start loading show_once stores so they are ready by the first pre-login
+        SeenStores.loadConfigured();
+        SessionLog.start();
+        RegionIndex.loadConfigured();
+        // Anyone already online after a plugin reload; from here on the listener keeps it current
+        PlayerGrid.seed();
+
+        if (getConfig().getBoolean("handoff.enabled", false)) {
+            handoffManager = new HandoffManager();
+        }
+
         // Register events
         getServer().getPluginManager().registerEvents(new LoadscreenListener(), this);
 
+        // Expose the API to other plugins
+        service = new SimpleLoadscreenService();
+        getServer().getServicesManager().register(LoadscreenService.class, service, this, ServicePriority.Normal);
+
         // Register commands
         getCommand("loadscreen").setExecutor(new LoadscreenCommand());
         getCommand("loadscreen").setTabCompleter(new LoadscreenCommand());
@@ -76,13 +103,27 @@ public class Loadscreens extends JavaPlugin {
         // Stop all active loadscreens
         LoadscreenManager.stopAllLoadscreens();
 
+        // Restore anyone still waiting in the restore queue
+        RestoreQueue.flushAll();
+
+        SeenStores.closeAll();
+
+        // After the sessions above logged their outcome
+        SessionLog.shutdown();
+
+        if (handoffManager != null) {
+            handoffManager.shutdown();
+            handoffManager = null;
+        }
+
         // Disable PacketEvents
         if (packetEventsEnabled) {
             PacketEvents.getAPI().terminate();
         }
 
-        // Unregister events
+        // Unregister events and the API
         HandlerList.unregisterAll(this);
+        getServer().getServicesManager().unregisterAll(this);
 
         getLogger().info("Loadscreens disabled and all sessions cleaned up.");
     }
@@ -137,6 +178,14 @@ public class Loadscreens extends JavaPlugin {
         return packetManager;
     }
 
+    public HandoffManager getHandoffManager() {
+        return handoffManager;
+    }
+
+    public LoadscreenService getService() {
+        return service;
+    }
+
     // API Methods for other plugins
     public void showCustomLoadscreen(org.bukkit.entity.Player player, String type) {
         LoadscreenManager.showLoadscreen(player, type);
@@ -146,12 +195,21 @@ public class Loadscreens extends JavaPlugin {
         LoadscreenManager.showLoadscreen(player, type, delay);
     }
 
-    // Hot reload method for development
+    // Picks up handoff settings; transfers in flight and pending resumes are dropped
+    void restartHandoff() {
+        if (handoffManager != null) {
+            handoffManager.shutdown();
+            handoffManager = null;
+        }
+        if (getConfig().getBoolean("handoff.enabled", false)) {
+            handoffManager = new HandoffManager();
+        }
+    }
+
+    // Applies config changes without restarting anything, see ConfigReloader
     public void hotReload() {
         getLogger().info("Hot reloading plugin...");
-        onDisable();
-        reloadConfig();
-        onEnable();
-        getLogger().info("Hot reload complete!");
+        List<String> changes = ConfigReloader.reload();
+        getLogger().info("Hot reload complete! " + (changes.isEmpty() ? "No changes." : String.join(", ", changes)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package org.anonventions.loadscreens.core;
+
+import org.anonventions.loadscreens.api.LoadscreenOptions;
+import org.anonventions.loadscreens.api.LoadscreenService;
+import org.anonventions.loadscreens.api.SessionResult;
+import org.anonventions.loadscreens.util.LoadscreenManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.concurrent.CompletableFuture;
+
+// LoadscreenService backed by LoadscreenManager. Calls from other threads are moved to the main thread.
+public class SimpleLoadscreenService implements LoadscreenService {
+
+    @Override
+    public CompletableFuture<SessionResult> show(Player player, String type, LoadscreenOptions options) {
+        LoadscreenOptions requested = options != null ? options : LoadscreenOptions.defaults();
+        if (Bukkit.isPrimaryThread()) {
+            return LoadscreenManager.show(player, type, requested);
+        }
+
+        CompletableFuture<SessionResult> result = new CompletableFuture<>();
+        Bukkit.getScheduler().runTask(Loadscreens.getInstance(), () ->
+                LoadscreenManager.show(player, type, requested).whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                }));
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<SessionResult> transfer(Player player, String server, String type) {
+        if (Loadscreens.getInstance().getHandoffManager() == null) {
+            return CompletableFuture.completedFuture(SessionResult.rejected(player, type, "handoff is disabled"));
+        }
+        if (Bukkit.isPrimaryThread()) {
+            return Loadscreens.getInstance().getHandoffManager().transfer(player, server, type);
+        }
+
+        CompletableFuture<SessionResult> result = new CompletableFuture<>();
+        Bukkit.getScheduler().runTask(Loadscreens.getInstance(), () ->
+                Loadscreens.getInstance().getHandoffManager().transfer(player, server, type).whenComplete((value, error) -> {
+                    if (error != null) {
+                        result.completeExceptionally(error);
+                    } else {
+                        result.complete(value);
+                    }
+                }));
+        return result;
+    }
+
+    @Override
+    public boolean isShowing(Player player) {
+        return LoadscreenManager.hasActiveLoadscreen(player);
+    }
+
+    @Override
+    public String getType(Player player) {
+        return LoadscreenManager.getActiveType(player);
+    }
+
+    @Override
+    public boolean stop(Player player) {
+        if (!LoadscreenManager.hasActiveLoadscreen(player)) return false;
+        LoadscreenManager.stopLoadscreen(player);
+        return true;
+    }
+}
@@ -0,0 +1,51 @@
+package org.anonventions.loadscreens.depends;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Placeholders resolved by the plugin itself, without PlaceholderAPI
+public enum BuiltinPlaceholder {
+    PLAYER_NAME("%player_name%", false),
+    PLAYER_DISPLAYNAME("%player_displayname%", false),
+    PLAYER_WORLD("%player_world%", false),
+    PLAYER_X("%player_x%", true),
+    PLAYER_Y("%player_y%", true),
+    PLAYER_Z("%player_z%", true),
+    PLAYER_HEALTH("%player_health%", false),
+    PLAYER_MAX_HEALTH("%player_max_health%", false),
+    PLAYER_FOOD("%player_food%", false),
+    PLAYER_LEVEL("%player_level%", false),
+    CURRENT_TIME("%current_time%", false),
+    SERVER_NAME("%server_name%", false),
+    SERVER_MOTD("%server_motd%", false),
+    ONLINE_PLAYERS("%online_players%", false),
+    MAX_PLAYERS("%max_players%", false);
+
+    private static final Map<String, BuiltinPlaceholder> BY_TOKEN = new HashMap<>();
+
+    static {
+        for (BuiltinPlaceholder placeholder : values()) {
+            BY_TOKEN.put(placeholder.token, placeholder);
+        }
+    }
+
+    private final String token;
+    private final boolean usesLocation;
+
+    BuiltinPlaceholder(String token, boolean usesLocation) {
+        this.token = token;
+        this.usesLocation = usesLocation;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public boolean usesLocation() {
+        return usesLocation;
+    }
+
+    public static BuiltinPlaceholder byToken(String token) {
+        return BY_TOKEN.get(token);
+    }
+}
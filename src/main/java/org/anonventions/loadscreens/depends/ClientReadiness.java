@@ -0,0 +1,36 @@
+package org.anonventions.loadscreens.depends;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Terrain-loading progress of one client during a loadscreen, fed from Netty threads. The client is
+// ready once every chunk batch sent to it has been acknowledged and no new batch has gone out for a
+// quiet period (which also covers a client that had nothing left to load). A PLAYER_LOADED packet
+// from 1.21.4+ clients skips the quiet period.
+public class ClientReadiness {
+    private final AtomicInteger batchesSent = new AtomicInteger();
+    private final AtomicInteger batchesAcked = new AtomicInteger();
+    private volatile long lastBatchNanos = System.nanoTime();
+    private volatile boolean playerLoaded;
+
+    void onBatchSent() {
+        batchesSent.incrementAndGet();
+        lastBatchNanos = System.nanoTime();
+    }
+
+    void onBatchAcked() {
+        batchesAcked.incrementAndGet();
+    }
+
+    void onPlayerLoaded() {
+        playerLoaded = true;
+    }
+
+    public int getOutstandingBatches() {
+        return Math.max(0, batchesSent.get() - batchesAcked.get());
+    }
+
+    public boolean isReady(long quietNanos) {
+        if (getOutstandingBatches() > 0) return false;
+        return playerLoaded || System.nanoTime() - lastBatchNanos >= quietNanos;
+    }
+}
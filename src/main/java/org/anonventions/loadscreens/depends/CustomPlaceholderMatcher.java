@@ -0,0 +1,178 @@
+package org.anonventions.loadscreens.depends;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Aho-Corasick automaton over every custom placeholder, so a frame is scanned once no matter how many
+// entries are loaded. Matches are replaced leftmost-longest and never overlap. Immutable once built,
+// so a reload can build a new one and swap it in.
+public class CustomPlaceholderMatcher {
+    public static final CustomPlaceholderMatcher EMPTY = build(Map.of());
+
+    private final char[][] edgeChars;   // Sorted outgoing characters per state
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    private final int[] depth;
+    private final int[] output;         // Longest pattern ending in this state, -1 if none
+    private final int[] lengths;
+    private final String[] replacements;
+
+    private CustomPlaceholderMatcher(char[][] edgeChars, int[][] edgeTargets, int[] fail, int[] depth, int[] output,
+                                     int[] lengths, String[] replacements) {
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.depth = depth;
+        this.output = output;
+        this.lengths = lengths;
+        this.replacements = replacements;
+    }
+
+    public static CustomPlaceholderMatcher build(Map<String, String> placeholders) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        children.add(new TreeMap<>());
+        depths.add(0);
+        terminals.add(-1);
+
+        int[] lengths = new int[placeholders.size()];
+        String[] replacements = new String[placeholders.size()];
+        int pattern = 0;
+        for (Map.Entry<String, String> entry : placeholders.entrySet()) {
+            String key = entry.getKey();
+            if (key.isEmpty()) continue;
+
+            int state = 0;
+            for (int i = 0; i < key.length(); i++) {
+                Integer next = children.get(state).get(key.charAt(i));
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    depths.add(i + 1);
+                    terminals.add(-1);
+                    children.get(state).put(key.charAt(i), next);
+                }
+                state = next;
+            }
+            terminals.set(state, pattern);
+            lengths[pattern] = key.length();
+            replacements[pattern] = entry.getValue();
+            pattern++;
+        }
+
+        int states = children.size();
+        char[][] edgeChars = new char[states][];
+        int[][] edgeTargets = new int[states][];
+        int[] depth = new int[states];
+        for (int state = 0; state < states; state++) {
+            TreeMap<Character, Integer> edges = children.get(state);
+            edgeChars[state] = new char[edges.size()];
+            edgeTargets[state] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                edgeChars[state][i] = edge.getKey();
+                edgeTargets[state][i] = edge.getValue();
+                i++;
+            }
+            depth[state] = depths.get(state);
+        }
+
+        // Failure links and outputs, breadth first so a state's fail target is always done before it
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        output[0] = -1;
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : edgeTargets[0]) {
+            fail[child] = 0;
+            output[child] = terminals.get(child);
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int i = 0; i < edgeChars[state].length; i++) {
+                char c = edgeChars[state][i];
+                int child = edgeTargets[state][i];
+
+                int f = fail[state];
+                while (f != 0 && edge(edgeChars, edgeTargets, f, c) < 0) {
+                    f = fail[f];
+                }
+                int target = edge(edgeChars, edgeTargets, f, c);
+                fail[child] = target >= 0 ? target : 0;
+
+                int terminal = terminals.get(child);
+                output[child] = terminal >= 0 ? terminal : output[fail[child]];
+                queue.add(child);
+            }
+        }
+
+        return new CustomPlaceholderMatcher(edgeChars, edgeTargets, fail, depth, output,
+                Arrays.copyOf(lengths, pattern), Arrays.copyOf(replacements, pattern));
+    }
+
+    private static int edge(char[][] edgeChars, int[][] edgeTargets, int state, char c) {
+        int index = Arrays.binarySearch(edgeChars[state], c);
+        return index >= 0 ? edgeTargets[state][index] : -1;
+    }
+
+    public int size() {
+        return replacements.length;
+    }
+
+    // Returns the text itself when nothing matched
+    public String replace(String text) {
+        if (replacements.length == 0 || text == null || text.isEmpty()) return text;
+
+        StringBuilder builder = null;
+        int length = text.length();
+        int emitted = 0;        // text before this index is already in the builder
+        int state = 0;
+        int bestStart = -1;
+        int bestPattern = -1;
+        int i = 0;
+
+        while (true) {
+            // Commit the best match once no partial match could still start at or before it
+            if (bestPattern >= 0 && (i == length || i - depth[state] > bestStart)) {
+                if (builder == null) builder = new StringBuilder(length + 16);
+                builder.append(text, emitted, bestStart).append(replacements[bestPattern]);
+                emitted = bestStart + lengths[bestPattern];
+                i = emitted;
+                state = 0;
+                bestPattern = -1;
+                continue;
+            }
+            if (i == length) break;
+
+            state = step(state, text.charAt(i));
+            int match = output[state];
+            if (match >= 0) {
+                int start = i - lengths[match] + 1;
+                if (bestPattern < 0 || start < bestStart || (start == bestStart && lengths[match] > lengths[bestPattern])) {
+                    bestStart = start;
+                    bestPattern = match;
+                }
+            }
+            i++;
+        }
+
+        if (builder == null) return text;
+        builder.append(text, emitted, length);
+        return builder.toString();
+    }
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = edge(edgeChars, edgeTargets, state, c);
+            if (next >= 0) return next;
+            if (state == 0) return 0;
+            state = fail[state];
+        }
+    }
+}
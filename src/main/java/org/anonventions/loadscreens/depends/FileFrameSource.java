@@ -0,0 +1,179 @@
+package org.anonventions.loadscreens.depends;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.Bukkit;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Frames read lazily from a UTF-8 text file, one frame per line ("\n" inside a line is a line break).
+// Opening only scans the file for line breaks to record where each chunk starts, off the main thread;
+// the frames themselves are read and compiled a chunk at a time through the shared chunk cache, with
+// the next chunk read ahead asynchronously while the current one plays. The offsets only hold for the
+// file as it was scanned, so if it is edited afterwards the chunks not yet read come out blank; a
+// reload notices the edit and opens a fresh source for new sessions.
+public class FileFrameSource implements FrameSource {
+    private final int sourceId;
+    private final File file;
+    private final PlaceholderManager manager;
+    private final FrameChunkCache cache;
+    private final CompletableFuture<Void> indexed;
+    private final Set<Integer> readingAhead = ConcurrentHashMap.newKeySet();
+
+    private volatile long[] chunkOffsets = new long[0];
+    private volatile int size;
+    private volatile String indexedVersion;
+    private volatile boolean staleWarned;
+
+    public FileFrameSource(File file, PlaceholderManager manager, FrameChunkCache cache) {
+        this.sourceId = cache.nextSourceId();
+        this.file = file;
+        this.manager = manager;
+        this.cache = cache;
+        this.indexed = CompletableFuture.runAsync(() -> {
+            index();
+            if (size > 0) readAhead(0);
+        }, FileFrameSource::runAsync);
+    }
+
+    private static void runAsync(Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(Loadscreens.getInstance(), task);
+    }
+
+    @Override
+    public CompletableFuture<Void> whenReady() {
+        return indexed;
+    }
+
+    // Size and modification time, enough to tell the file was rewritten
+    private static String version(File file) {
+        return file.length() + ":" + file.lastModified();
+    }
+
+    // True once the file on disk is no longer the one that was scanned
+    public boolean isStale() {
+        return indexed.isDone() && !version(file).equals(indexedVersion);
+    }
+
+    private void index() {
+        String version = version(file);
+        long[] offsets = new long[16];
+        int lines = 0;
+        long position = 0;
+        boolean lineOpen = false;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 64 * 1024)) {
+            int b;
+            while ((b = in.read()) != -1) {
+                if (!lineOpen) {
+                    if (lines % FrameChunkCache.CHUNK_SIZE == 0) {
+                        int chunk = lines / FrameChunkCache.CHUNK_SIZE;
+                        if (chunk == offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+                        offsets[chunk] = position;
+                    }
+                    lineOpen = true;
+                }
+                position++;
+                if (b == '\n') {
+                    lines++;
+                    lineOpen = false;
+                }
+            }
+            if (lineOpen) lines++;
+        } catch (IOException e) {
+            Loadscreens.getInstance().getLogger().warning("Failed to read frame file " + file.getName() + ": " + e.getMessage());
+            this.indexedVersion = version;
+            return;
+        }
+
+        this.chunkOffsets = Arrays.copyOf(offsets, (lines + FrameChunkCache.CHUNK_SIZE - 1) / FrameChunkCache.CHUNK_SIZE);
+        this.size = lines;
+        this.indexedVersion = version;
+    }
+
+    // 0 until the scan finishes; sessions wait on whenReady() before they start
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // Reads the chunk from disk on a miss, so only for async callers; the tick uses getIfLoaded
+    @Override
+    public PlaceholderTemplate get(int index) {
+        int chunk = index / FrameChunkCache.CHUNK_SIZE;
+        int offset = index % FrameChunkCache.CHUNK_SIZE;
+        if (offset == 0 && (chunk + 1) * FrameChunkCache.CHUNK_SIZE < size) {
+            readAhead(chunk + 1);
+        }
+        return cache.get(sourceId, chunk, this::readChunk)[offset];
+    }
+
+    @Override
+    public PlaceholderTemplate getIfLoaded(int index) {
+        int chunk = index / FrameChunkCache.CHUNK_SIZE;
+        int offset = index % FrameChunkCache.CHUNK_SIZE;
+        if (offset == 0 && (chunk + 1) * FrameChunkCache.CHUNK_SIZE < size) {
+            readAhead(chunk + 1);
+        }
+
+        PlaceholderTemplate[] templates = cache.peek(sourceId, chunk);
+        if (templates == null) {
+            readAhead(chunk);
+            return null;
+        }
+        return templates[offset];
+    }
+
+    private void readAhead(int chunk) {
+        if (cache.contains(sourceId, chunk) || !readingAhead.add(chunk)) return;
+        runAsync(() -> {
+            try {
+                cache.get(sourceId, chunk, this::readChunk);
+            } finally {
+                readingAhead.remove(chunk);
+            }
+        });
+    }
+
+    private PlaceholderTemplate[] readChunk(int chunk) {
+        int count = Math.min(FrameChunkCache.CHUNK_SIZE, size - chunk * FrameChunkCache.CHUNK_SIZE);
+        PlaceholderTemplate[] templates = new PlaceholderTemplate[count];
+
+        if (!version(file).equals(indexedVersion)) {
+            if (!staleWarned) {
+                staleWarned = true;
+                Loadscreens.getInstance().getLogger().warning("Frame file " + file.getName() + " changed while in use, reload to pick up the new frames");
+            }
+            Arrays.fill(templates, manager.compile(""));
+            return templates;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            channel.position(chunkOffsets[chunk]);
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            for (int i = 0; i < count; i++) {
+                String line = reader.readLine();
+                templates[i] = manager.compile(line == null ? "" : line.replace("\\n", "\n"));
+            }
+        } catch (IOException e) {
+            // Keep the session running with blank frames rather than failing mid-animation
+            Loadscreens.getInstance().getLogger().warning("Failed to read frames from " + file.getName() + ": " + e.getMessage());
+            for (int i = 0; i < count; i++) {
+                if (templates[i] == null) templates[i] = manager.compile("");
+            }
+        }
+        return templates;
+    }
+}
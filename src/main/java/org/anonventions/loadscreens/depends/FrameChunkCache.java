@@ -0,0 +1,70 @@
+package org.anonventions.loadscreens.depends;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+// Read-through LRU of compiled frame chunks shared by every streaming frame source and session, bounded
+// by performance.frame_cache_chunks.
+public class FrameChunkCache {
+    public static final int CHUNK_SIZE = 256;
+
+    private final AtomicInteger nextSourceId = new AtomicInteger();
+    private final LinkedHashMap<Long, PlaceholderTemplate[]> chunks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, PlaceholderTemplate[]> eldest) {
+            return size() > maxChunks;
+        }
+    };
+    private int maxChunks;
+
+    public FrameChunkCache(int maxChunks) {
+        this.maxChunks = Math.max(1, maxChunks);
+    }
+
+    int nextSourceId() {
+        return nextSourceId.getAndIncrement();
+    }
+
+    public synchronized void configure(int maxChunks) {
+        this.maxChunks = Math.max(1, maxChunks);
+        while (chunks.size() > this.maxChunks) {
+            chunks.remove(chunks.keySet().iterator().next());
+        }
+    }
+
+    // Loads outside the lock, so a chunk being read from disk doesn't hold up every other source. If two
+    // callers race on the same chunk the first one stored wins.
+    PlaceholderTemplate[] get(int sourceId, int chunk, IntFunction<PlaceholderTemplate[]> loader) {
+        long key = ((long) sourceId << 32) | chunk;
+        synchronized (this) {
+            PlaceholderTemplate[] templates = chunks.get(key);
+            if (templates != null) return templates;
+        }
+
+        PlaceholderTemplate[] loaded = loader.apply(chunk);
+        synchronized (this) {
+            PlaceholderTemplate[] templates = chunks.get(key);
+            if (templates != null) return templates;
+            chunks.put(key, loaded);
+            return loaded;
+        }
+    }
+
+    synchronized PlaceholderTemplate[] peek(int sourceId, int chunk) {
+        return chunks.get(((long) sourceId << 32) | chunk);
+    }
+
+    synchronized boolean contains(int sourceId, int chunk) {
+        return chunks.containsKey(((long) sourceId << 32) | chunk);
+    }
+
+    public synchronized int size() {
+        return chunks.size();
+    }
+
+    public synchronized void clear() {
+        chunks.clear();
+    }
+}
@@ -0,0 +1,73 @@
+package org.anonventions.loadscreens.depends;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.concurrent.CompletableFuture;
+
+// Where a loadscreen type's frames come from. Sources are shared by every session of the type and hand
+// out compiled templates by index, so a session never holds its own copy of the frame list.
+public interface FrameSource {
+
+    int size();
+
+    PlaceholderTemplate get(int index);
+
+    // Completes once size() is known. Only file sources take a while, scanning the file off the main thread.
+    default CompletableFuture<Void> whenReady() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    // For the main thread: null if the frame would have to be read from disk first, in which case the
+    // read is started in the background and the caller keeps showing what it had
+    default PlaceholderTemplate getIfLoaded(int index) {
+        return get(index);
+    }
+
+    // frame_source: inline (the frames list), generated (one frame per codepoint) or file (one frame per line)
+    static FrameSource create(String type, PlaceholderManager manager, FrameChunkCache cache) {
+        var config = Loadscreens.getInstance().getConfig();
+        String basePath = "loadscreen_types." + type + ".";
+        String kind = config.getString(basePath + "frame_source", "inline").toLowerCase();
+
+        switch (kind) {
+            case "generated":
+                ConfigurationSection generator = config.getConfigurationSection(basePath + "frame_generator");
+                if (generator != null) {
+                    try {
+                        int start = Integer.parseInt(generator.getString("start", "E000"), 16);
+                        int end = Integer.parseInt(generator.getString("end", "E000"), 16);
+                        // Checked here, since a codepoint out of range would otherwise throw mid-animation
+                        if (start < 0 || end > Character.MAX_CODE_POINT || start > end) {
+                            Loadscreens.getInstance().getLogger().warning("Invalid frame_generator range for type '" + type +
+                                    "': start and end must be codepoints up to 10FFFF with start <= end");
+                            break;
+                        }
+                        return new GeneratedFrameSource(start, end,
+                                generator.getString("prefix", ""),
+                                generator.getString("suffix", ""),
+                                manager, cache);
+                    } catch (NumberFormatException e) {
+                        Loadscreens.getInstance().getLogger().warning("Invalid frame_generator range for type '" + type + "': " + e.getMessage());
+                    }
+                } else {
+                    Loadscreens.getInstance().getLogger().warning("Type '" + type + "' uses generated frames but has no frame_generator section");
+                }
+                break;
+            case "file":
+                String path = config.getString(basePath + "frame_file", "");
+                if (!path.isEmpty()) {
+                    return new FileFrameSource(new java.io.File(Loadscreens.getInstance().getDataFolder(), path), manager, cache);
+                }
+                Loadscreens.getInstance().getLogger().warning("Type '" + type + "' uses a frame file but has no frame_file set");
+                break;
+            case "inline":
+                break;
+            default:
+                Loadscreens.getInstance().getLogger().warning("Unknown frame_source '" + kind + "' for type '" + type + "', using inline frames");
+                break;
+        }
+
+        return new InlineFrameSource(config.getStringList(basePath + "frames"), manager);
+    }
+}
@@ -0,0 +1,45 @@
+package org.anonventions.loadscreens.depends;
+
+// One frame per codepoint in [start, end], e.g. a glyph sheet from a resource pack font. Frames are
+// compiled a chunk at a time through the shared chunk cache.
+public class GeneratedFrameSource implements FrameSource {
+    private final int sourceId;
+    private final int start, size;
+    private final String prefix, suffix;
+    private final PlaceholderManager manager;
+    private final FrameChunkCache cache;
+
+    public GeneratedFrameSource(int start, int end, String prefix, String suffix, PlaceholderManager manager, FrameChunkCache cache) {
+        this.sourceId = cache.nextSourceId();
+        this.start = start;
+        this.size = Math.max(0, end - start + 1);
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.manager = manager;
+        this.cache = cache;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public PlaceholderTemplate get(int index) {
+        int chunk = index / FrameChunkCache.CHUNK_SIZE;
+        return cache.get(sourceId, chunk, this::compileChunk)[index % FrameChunkCache.CHUNK_SIZE];
+    }
+
+    private PlaceholderTemplate[] compileChunk(int chunk) {
+        int first = chunk * FrameChunkCache.CHUNK_SIZE;
+        int count = Math.min(FrameChunkCache.CHUNK_SIZE, size - first);
+        PlaceholderTemplate[] templates = new PlaceholderTemplate[count];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            builder.append(prefix).appendCodePoint(start + first + i).append(suffix);
+            templates[i] = manager.compile(builder.toString());
+        }
+        return templates;
+    }
+}
@@ -0,0 +1,25 @@
+package org.anonventions.loadscreens.depends;
+
+import java.util.List;
+
+// The frames list from config.yml, compiled up front
+public class InlineFrameSource implements FrameSource {
+    private final PlaceholderTemplate[] templates;
+
+    public InlineFrameSource(List<String> frames, PlaceholderManager manager) {
+        this.templates = new PlaceholderTemplate[frames.size()];
+        for (int i = 0; i < templates.length; i++) {
+            templates[i] = manager.compile(frames.get(i));
+        }
+    }
+
+    @Override
+    public int size() {
+        return templates.length;
+    }
+
+    @Override
+    public PlaceholderTemplate get(int index) {
+        return templates[index];
+    }
+}
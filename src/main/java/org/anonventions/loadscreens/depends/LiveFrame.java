@@ -0,0 +1,54 @@
+package org.anonventions.loadscreens.depends;
+
+import org.bukkit.entity.Player;
+
+// One frame of a running loadscreen: its compiled template plus the slot values last rendered for the
+// viewer. Refreshing resolves the slots again and only rebuilds the text when one of them changed.
+public class LiveFrame {
+    private final PlaceholderTemplate template;
+    private final String[] values;
+    private boolean resolved;
+    private String text;
+    private int lastRefreshTick;
+
+    public LiveFrame(PlaceholderTemplate template, String text, int tick) {
+        this.template = template;
+        this.values = new String[template.getSlotCount()];
+        this.text = text;
+        this.lastRefreshTick = tick;
+    }
+
+    public PlaceholderTemplate getTemplate() {
+        return template;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isDynamic() {
+        return !template.isConstant();
+    }
+
+    public boolean isDue(int tick, int updateInterval) {
+        return updateInterval > 0 && !template.isConstant() && tick - lastRefreshTick >= updateInterval;
+    }
+
+    // Returns true if the text changed
+    public boolean refresh(PlaceholderManager manager, Player player, int tick) {
+        lastRefreshTick = tick;
+        if (template.isConstant()) return false;
+
+        StringBuilder builder = manager.builder();
+        boolean changed = template.resolveSlots(manager, player, values, builder);
+
+        // The initial text may have come from a full resolve, so the first refresh always rebuilds
+        if (!changed && resolved) return false;
+        resolved = true;
+
+        String updated = template.assemble(values, builder);
+        if (updated.equals(text)) return false;
+        text = updated;
+        return true;
+    }
+}
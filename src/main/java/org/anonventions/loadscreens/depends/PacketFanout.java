@@ -0,0 +1,98 @@
+package org.anonventions.loadscreens.depends;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.player.ClientVersion;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerBundle;
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sends the same packets to many players while serialising them only once per client version. Each
+// packet is encoded on the first channel of a version into a buffer we hold a reference to, and every
+// channel of that version gets a retained duplicate, so the bytes are shared and only the per-connection
+// compression and encryption run N times. The duplicates are written silently and each channel is
+// flushed once, like sendBundle. Shared encoding is off unless performance.shared_packet_encoding is set;
+// otherwise every viewer gets their own sendBundle.
+public class PacketFanout {
+
+    public static void send(Iterable<Player> viewers, List<PacketWrapper<?>> packets) {
+        if (packets.isEmpty()) return;
+
+        if (!Loadscreens.getInstance().getConfig().getBoolean("performance.shared_packet_encoding", false)) {
+            for (Player viewer : viewers) {
+                Loadscreens.getInstance().getPacketManager().sendBundle(viewer, packets);
+            }
+            return;
+        }
+
+        Map<ClientVersion, List<User>> byVersion = new HashMap<>();
+        for (Player viewer : viewers) {
+            if (!viewer.isOnline()) continue;
+            User user = PacketEvents.getAPI().getPlayerManager().getUser(viewer);
+            if (user == null || user.getChannel() == null) continue;
+            byVersion.computeIfAbsent(user.getClientVersion(), version -> new ArrayList<>()).add(user);
+        }
+        if (byVersion.isEmpty()) return;
+
+        List<PacketWrapper<?>> framed = new ArrayList<>(packets.size() + 2);
+        framed.add(new WrapperPlayServerBundle());
+        framed.addAll(packets);
+        framed.add(new WrapperPlayServerBundle());
+
+        for (List<User> users : byVersion.values()) {
+            Object[] encoded = new Object[framed.size()];
+            try {
+                encode(framed, users.get(0).getChannel(), encoded);
+                for (User user : users) {
+                    write(user, encoded);
+                }
+            } finally {
+                // Whatever was encoded before a failure is released too
+                for (Object buffer : encoded) {
+                    if (buffer != null) ByteBufHelper.release(buffer);
+                }
+                // and so is a buffer a wrapper was still holding when its encode threw
+                for (PacketWrapper<?> packet : framed) {
+                    if (packet.getBuffer() != null) {
+                        ByteBufHelper.release(packet.getBuffer());
+                        packet.setBuffer(null);
+                    }
+                }
+            }
+        }
+    }
+
+    // One viewer's channel closing mid-send shouldn't cost the rest of the group their frame
+    private static void write(User user, Object[] encoded) {
+        try {
+            for (Object buffer : encoded) {
+                PacketEvents.getAPI().getProtocolManager().writePacketSilently(user.getChannel(),
+                        ByteBufHelper.retainedDuplicate(buffer));
+            }
+            user.flushPackets();
+        } catch (Exception e) {
+            if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+                Loadscreens.getInstance().getLogger().warning("Failed to send grouped frame to " + user.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Serialises each packet for the channel's protocol version into the array as it goes. The wrappers
+    // give up their buffers, so the same wrappers can be encoded again for the next version.
+    private static void encode(List<PacketWrapper<?>> packets, Object channel, Object[] encoded) {
+        for (int i = 0; i < encoded.length; i++) {
+            PacketWrapper<?> packet = packets.get(i);
+            packet.setBuffer(null);
+            packet.prepareForSend(channel, true);
+            encoded[i] = packet.getBuffer();
+            packet.setBuffer(null);
+        }
+    }
+}
@@ -1,47 +1,88 @@
 package org.anonventions.loadscreens.depends;
 
+import com.github.retrooper.packetevents.PacketEvents;
 import com.github.retrooper.packetevents.event.PacketListener;
 import com.github.retrooper.packetevents.event.PacketReceiveEvent;
 import com.github.retrooper.packetevents.event.PacketSendEvent;
+import com.github.retrooper.packetevents.event.UserDisconnectEvent;
 import com.github.retrooper.packetevents.protocol.packettype.PacketType;
 import com.github.retrooper.packetevents.protocol.packettype.PacketTypeCommon;
-import com.github.retrooper.packetevents.wrapper.play.client.*;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
+import com.github.retrooper.packetevents.protocol.potion.PotionType;
+import com.github.retrooper.packetevents.protocol.potion.PotionTypes;
+import com.github.retrooper.packetevents.netty.buffer.ByteBufHelper;
+import com.github.retrooper.packetevents.protocol.player.User;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
 import com.github.retrooper.packetevents.wrapper.play.server.*;
 import org.anonventions.loadscreens.core.Loadscreens;
 import org.bukkit.entity.Player;
-import org.bukkit.entity.TextDisplay;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
-import org.bukkit.GameMode;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.scheduler.BukkitRunnable;
 
-import java.util.Set;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.HashSet;
 import java.util.UUID;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PacketManager implements PacketListener {
-    private final Set<UUID> blockedPlayers = new HashSet<>();
-    private final Map<UUID, PlayerState> originalStates = new HashMap<>();
-    private final Map<UUID, TextDisplay> cameraEntities = new HashMap<>(); // Track camera entities
-    private final Map<UUID, BukkitRunnable> rotationLockTasks = new HashMap<>(); // Keep this for cleanup
-    private final Set<UUID> playersBeingRestored = new HashSet<>(); // Track players being restored
+    private final Map<UUID, LockState> lockStates = new ConcurrentHashMap<>(); // Read from Netty threads
+    private final Map<UUID, int[]> reservedEntityIds = new ConcurrentHashMap<>(); // Client-only entity IDs: camera anchor + scene layers
 
-    public void blockPackets(Player player) {
+    private final Map<UUID, ClientReadiness> readiness = new ConcurrentHashMap<>(); // Sessions that end on client readiness
+
+    // Entity IDs of locked players whose spawn/metadata/movement packets are dropped for every other viewer,
+    // sorted. Changed only on the main thread, by publishing a new array, so the Netty threads checking
+    // every outbound entity packet read it without locking.
+    private volatile int[] hiddenEntities = new int[0];
+
+    // Text display metadata index of the background colour (1.20.2+ layout)
+    private static final int TEXT_BACKGROUND_INDEX = 25;
+
+    // Slots in a player's reserved entity IDs
+    private static final int CAMERA_ANCHOR_SLOT = 0;
+    public static final int SCENE_LAYER_COUNT = 4;
+
+    // Game event value for spectator mode
+    private static final float SPECTATOR_GAME_MODE = 3.0f;
+
+    // Lowercase ASCII prefix of the only command a locked admin may run
+    private static final byte[] ADMIN_COMMAND_PREFIX = "loadscreen".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+
+    // Effect duration the client treats as infinite
+    private static final int INFINITE_EFFECT_DURATION = -1;
+
+    // Effects applied to the locked player's client, with their server-side counterparts
+    private static final Map<PotionType, PotionEffectType> LOCKDOWN_EFFECTS = Map.of(
+            PotionTypes.SLOWNESS, PotionEffectType.SLOWNESS,
+            PotionTypes.JUMP_BOOST, PotionEffectType.JUMP_BOOST,
+            PotionTypes.BLINDNESS, PotionEffectType.BLINDNESS
+    );
+
+    public void blockPackets(Player player, String type) {
         UUID uuid = player.getUniqueId();
-        blockedPlayers.add(uuid);
 
-        // Store original state BEFORE making any changes
-        PlayerState originalState = new PlayerState(player);
-        originalStates.put(uuid, originalState);
+        // Decide the admin command bypass once, on the main thread, instead of calling hasPermission
+        // from the Netty thread for every command packet
+        boolean adminBypass = Loadscreens.getInstance().getConfig().getBoolean("packet_settings.allow_admin_commands", true) &&
+                player.hasPermission("loadscreens.admin");
+        LockState state = new LockState(adminBypass);
+        lockStates.put(uuid, state);
+
+        // Original server-side state is captured by the session's RestorePlan before this is called
 
         // Apply complete lockdown
         makePlayerInvisible(player);
-        hideCompleteUI(player);
         freezePlayerCompletely(player);
-        startRotationLock(player); // NEW: Force rotation lock
+        hideCompleteUI(player, state); // After freezing, so our abilities packet is the last one the client sees
+        startRotationLock(player, type); // NEW: Force rotation lock
 
         if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
             Loadscreens.getInstance().getLogger().info("Applied NUCLEAR lockdown to " + player.getName());
@@ -50,24 +91,17 @@ public class PacketManager implements PacketListener {
 
     public void unblockPackets(Player player) {
         UUID uuid = player.getUniqueId();
-        blockedPlayers.remove(uuid);
+        LockState state = lockStates.remove(uuid);
 
-        // Stop rotation lock task
-        BukkitRunnable rotationTask = rotationLockTasks.remove(uuid);
-        if (rotationTask != null) {
-            rotationTask.cancel();
+        // Restore the client's view; the server-side state is restored by the session's RestorePlan
+        if (state != null) {
+            restoreClientView(player, state);
         }
 
-        // Restore original state
-        PlayerState originalState = originalStates.remove(uuid);
-        if (originalState != null) {
-            restorePlayerState(player, originalState);
-        }
-
-        // Remove camera entity if it exists
-        TextDisplay cameraEntity = cameraEntities.remove(uuid);
-        if (cameraEntity != null) {
-            cameraEntity.remove();
+        // Despawn the camera anchor on the client, but keep its ID reserved for the next session
+        int[] ids = reservedEntityIds.get(uuid);
+        if (ids != null && player.isOnline()) {
+            PacketEvents.getAPI().getPlayerManager().sendPacket(player, new WrapperPlayServerDestroyEntities(ids[CAMERA_ANCHOR_SLOT]));
         }
 
         if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
@@ -75,16 +109,16 @@ public class PacketManager implements PacketListener {
         }
     }
 
-    private void startRotationLock(Player player) {
+    private void startRotationLock(Player player, String type) {
         // Get the target rotation from LoadscreenManager if active
         Location targetLocation = player.getLocation().clone();
 
         // Check if player has an active loadscreen session to get the exact target rotation
         if (org.anonventions.loadscreens.util.LoadscreenManager.hasActiveLoadscreen(player)) {
-            // Try to get the configured look_yaw and look_pitch from the active session
+            // The look_yaw and look_pitch of the type being shown
             var config = Loadscreens.getInstance().getConfig();
-            float targetYaw = (float) config.getDouble("loadscreen_types.join.look_yaw", 0.0);
-            float targetPitch = (float) config.getDouble("loadscreen_types.join.look_pitch", 0.0);
+            float targetYaw = (float) config.getDouble("loadscreen_types." + type + ".look_yaw", 0.0);
+            float targetPitch = (float) config.getDouble("loadscreen_types." + type + ".look_pitch", 0.0);
 
             // Set the target rotation and position
             targetLocation.setYaw(targetYaw);
@@ -95,28 +129,33 @@ public class PacketManager implements PacketListener {
             Location cameraLocation = targetLocation.clone();
             cameraLocation.add(0, 1.62, 0); // Add eye level offset
 
-            // Create a camera entity at the target location with the exact rotation
-            TextDisplay cameraEntity = player.getWorld().spawn(cameraLocation, TextDisplay.class, entity -> {
-                entity.text(net.kyori.adventure.text.Component.empty()); // Empty text
-                entity.setInvisible(true);
-                entity.setCustomNameVisible(false);
-                entity.setGlowing(false);
-                // Set the entity's rotation to our target rotation
-                entity.setRotation(targetYaw, targetPitch);
-            });
-
-            // Store the camera entity for cleanup
-            cameraEntities.put(player.getUniqueId(), cameraEntity);
+            // Fake entity IDs are reserved once per player and reused for every session. The anchor only
+            // exists on this player's client, so there is no server entity to track or remove.
+            int anchorId = reserveEntityIds(player.getUniqueId())[CAMERA_ANCHOR_SLOT];
 
             // Send camera packet to make player view through the camera entity
             try {
-                // Use PacketEvents to send the camera packet
-                com.github.retrooper.packetevents.PacketEvents.getAPI().getPlayerManager().sendPacket(player,
-                    new WrapperPlayServerCamera(cameraEntity.getEntityId()));
+                var playerManager = PacketEvents.getAPI().getPlayerManager();
+                playerManager.sendPacket(player, new WrapperPlayServerSpawnEntity(
+                        anchorId,
+                        Optional.of(UUID.randomUUID()),
+                        EntityTypes.TEXT_DISPLAY,
+                        new Vector3d(cameraLocation.getX(), cameraLocation.getY(), cameraLocation.getZ()),
+                        targetPitch,
+                        targetYaw,
+                        targetYaw,
+                        0,
+                        Optional.empty()
+                ));
+                // Empty text still draws the default background quad, so make it fully transparent
+                playerManager.sendPacket(player, new WrapperPlayServerEntityMetadata(anchorId, List.of(
+                        new EntityData(TEXT_BACKGROUND_INDEX, EntityDataTypes.INT, 0)
+                )));
+                playerManager.sendPacket(player, new WrapperPlayServerCamera(anchorId));
 
                 if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
                     Loadscreens.getInstance().getLogger().info("Set camera lock for " + player.getName() +
-                        " to entity " + cameraEntity.getEntityId() + " at yaw: " + targetYaw + ", pitch: " + targetPitch);
+                        " to entity " + anchorId + " at yaw: " + targetYaw + ", pitch: " + targetPitch);
                 }
             } catch (Exception e) {
                 if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
@@ -128,51 +167,68 @@ public class PacketManager implements PacketListener {
         }
     }
 
-    private org.bukkit.util.Vector getDirectionFromYawPitch(float yaw, float pitch) {
-        double yawRad = Math.toRadians(yaw);
-        double pitchRad = Math.toRadians(pitch);
-
-        double x = -Math.sin(yawRad) * Math.cos(pitchRad);
-        double y = -Math.sin(pitchRad);
-        double z = Math.cos(yawRad) * Math.cos(pitchRad);
+    private void makePlayerInvisible(Player player) {
+        // Hide the player at the packet level instead of calling hidePlayer for every online player.
+        // Only players currently tracking the entity need a destroy; anyone who starts tracking it
+        // while locked has the spawn dropped in onPacketSend.
+        int[] hidden = hiddenEntities;
+        int index = Arrays.binarySearch(hidden, player.getEntityId());
+        if (index < 0) {
+            int insert = -index - 1;
+            int[] updated = new int[hidden.length + 1];
+            System.arraycopy(hidden, 0, updated, 0, insert);
+            updated[insert] = player.getEntityId();
+            System.arraycopy(hidden, insert, updated, insert + 1, hidden.length - insert);
+            hiddenEntities = updated;
+        }
 
-        return new org.bukkit.util.Vector(x, y, z);
+        WrapperPlayServerDestroyEntities destroy = new WrapperPlayServerDestroyEntities(player.getEntityId());
+        for (Player tracker : player.getTrackedBy()) {
+            PacketEvents.getAPI().getPlayerManager().sendPacket(tracker, destroy);
+        }
     }
 
-    private void makePlayerInvisible(Player player) {
-        // Make player invisible to others
-        for (Player other : player.getServer().getOnlinePlayers()) {
-            if (!other.equals(player)) {
-                other.hidePlayer(Loadscreens.getInstance(), player);
-            }
+    private void makePlayerVisible(Player player) {
+        int[] hidden = hiddenEntities;
+        int index = Arrays.binarySearch(hidden, player.getEntityId());
+        if (index >= 0) {
+            int[] updated = new int[hidden.length - 1];
+            System.arraycopy(hidden, 0, updated, 0, index);
+            System.arraycopy(hidden, index + 1, updated, index, hidden.length - index - 1);
+            hiddenEntities = updated;
         }
+        if (!player.isOnline()) return;
+
+        // Re-track the player for everyone tracking them, so the server sends the full pairing again:
+        // every metadata field (flags, pose, name, arrows), equipment, passengers and the vehicle. Only
+        // players tracking the entity need it; anyone else pairs normally when they come into range.
+        for (Player tracker : player.getTrackedBy()) {
+            tracker.hidePlayer(Loadscreens.getInstance(), player);
+            tracker.showPlayer(Loadscreens.getInstance(), player);
+        }
+    }
 
-        // Apply invisibility effect
-        player.addPotionEffect(new PotionEffect(
-                PotionEffectType.INVISIBILITY,
-                Integer.MAX_VALUE,
-                0,
-                true,
-                false,
-                false
-        ));
+    private boolean isEntityHidden(int entityId) {
+        return Arrays.binarySearch(hiddenEntities, entityId) >= 0;
     }
 
-    private void hideCompleteUI(Player player) {
+    private void hideCompleteUI(Player player, LockState state) {
         // Apply blindness if enabled in config
         if (Loadscreens.getInstance().getConfig().getBoolean("packet_settings.apply_blindness_effect", true)) {
-            player.addPotionEffect(new PotionEffect(
-                    PotionEffectType.BLINDNESS,
-                    Integer.MAX_VALUE,
-                    0,
-                    true,
-                    false,
-                    false
-            ));
-        }
-
-        // Set to spectator mode for maximum UI hiding
-        player.setGameMode(GameMode.SPECTATOR);
+            sendClientEffect(player, PotionTypes.BLINDNESS, 0);
+        }
+
+        // Switch only this client into spectator mode for maximum UI hiding. The server-side gamemode
+        // stays the same, so no PLAYER_INFO gamemode update is broadcast and nothing needs switching back.
+        // Sent silently so they pass our own outbound filter for blocked players.
+        if (Loadscreens.getInstance().getConfig().getBoolean("packet_settings.use_spectator_mode", true)) {
+            var playerManager = PacketEvents.getAPI().getPlayerManager();
+            playerManager.sendPacketSilently(player, new WrapperPlayServerChangeGameState(
+                    WrapperPlayServerChangeGameState.Reason.CHANGE_GAME_MODE, SPECTATOR_GAME_MODE));
+            // Invulnerable and flying like a spectator, but with no fly or walk speed
+            playerManager.sendPacketSilently(player, new WrapperPlayServerPlayerAbilities(true, true, true, false, 0.0f, 0.0f));
+            state.clientSpectator = true;
+        }
     }
 
     private void freezePlayerCompletely(Player player) {
@@ -180,24 +236,9 @@ public class PacketManager implements PacketListener {
         player.setWalkSpeed(0.0f);
         player.setFlySpeed(0.0f);
 
-        // Add extremely strong effects
-        player.addPotionEffect(new PotionEffect(
-                PotionEffectType.SLOWNESS,
-                Integer.MAX_VALUE,
-                255,
-                true,
-                false,
-                false
-        ));
-
-        player.addPotionEffect(new PotionEffect(
-                PotionEffectType.JUMP_BOOST,
-                Integer.MAX_VALUE,
-                250,
-                true,
-                false,
-                false
-        ));
+        // Add extremely strong effects, on the client only
+        sendClientEffect(player, PotionTypes.SLOWNESS, 255);
+        sendClientEffect(player, PotionTypes.JUMP_BOOST, 250);
 
         // Prevent flying
         if (player.isFlying()) {
@@ -206,7 +247,32 @@ public class PacketManager implements PacketListener {
         player.setAllowFlight(false);
     }
 
-    private void restorePlayerState(Player player, PlayerState originalState) {
+    // Lockdown effects only exist on the locked player's own client: nothing is added server-side, so
+    // trackers receive nothing, nothing is ticked and nothing survives a crash.
+    private void sendClientEffect(Player player, PotionType potionType, int amplifier) {
+        PacketEvents.getAPI().getPlayerManager().sendPacketSilently(player, new WrapperPlayServerEntityEffect(
+                player.getEntityId(), potionType, amplifier, INFINITE_EFFECT_DURATION, (byte) 0));
+    }
+
+    private void clearClientEffects(Player player) {
+        for (Map.Entry<PotionType, PotionEffectType> entry : LOCKDOWN_EFFECTS.entrySet()) {
+            // Show any real effect of the same type again instead of leaving it removed
+            PotionEffect realEffect = player.getPotionEffect(entry.getValue());
+            if (realEffect != null) {
+                byte flags = 0;
+                if (realEffect.isAmbient()) flags |= 0x01;
+                if (realEffect.hasParticles()) flags |= 0x02;
+                if (realEffect.hasIcon()) flags |= 0x04;
+                PacketEvents.getAPI().getPlayerManager().sendPacketSilently(player, new WrapperPlayServerEntityEffect(
+                        player.getEntityId(), entry.getKey(), realEffect.getAmplifier(), realEffect.getDuration(), flags));
+            } else {
+                PacketEvents.getAPI().getPlayerManager().sendPacketSilently(player,
+                        new WrapperPlayServerRemoveEntityEffect(player.getEntityId(), entry.getKey()));
+            }
+        }
+    }
+
+    private void restoreClientView(Player player, LockState state) {
         // Restore camera view FIRST before other restoration
         try {
             // Send camera packet to restore normal view (using player's own entity ID)
@@ -222,67 +288,18 @@ public class PacketManager implements PacketListener {
             }
         }
 
-        // Remove ALL effects
-        player.removePotionEffect(PotionEffectType.INVISIBILITY);
-        player.removePotionEffect(PotionEffectType.BLINDNESS);
-        player.removePotionEffect(PotionEffectType.SLOWNESS);
-        player.removePotionEffect(PotionEffectType.JUMP_BOOST);
-
-        // Restore gamemode FIRST
-        player.setGameMode(originalState.gameMode);
+        // Drop the client-side lockdown effects
+        clearClientEffects(player);
 
-        // THEN restore speeds
-        player.setWalkSpeed(originalState.walkSpeed);
-        player.setFlySpeed(originalState.flySpeed);
-        player.setAllowFlight(originalState.allowFlight);
-
-        if (originalState.wasFlying && originalState.allowFlight) {
-            player.setFlying(true);
+        // Put the client back into its real gamemode. Abilities are resent by the server when the
+        // RestorePlan restores speeds and flight.
+        if (state.clientSpectator) {
+            PacketEvents.getAPI().getPlayerManager().sendPacket(player, new WrapperPlayServerChangeGameState(
+                    WrapperPlayServerChangeGameState.Reason.CHANGE_GAME_MODE, player.getGameMode().getValue()));
         }
 
         // Make player visible again
-        for (Player other : player.getServer().getOnlinePlayers()) {
-            if (!other.equals(player)) {
-                other.showPlayer(Loadscreens.getInstance(), player);
-            }
-        }
-
-        // Clear velocity
-        player.setVelocity(new org.bukkit.util.Vector(0, 0, 0));
-
-        // CRITICAL FIX: Force inventory refresh after gamemode change
-        // This fixes the invisible items issue when transitioning from spectator mode
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                if (player.isOnline()) {
-                    // Force update the player's inventory
-                    player.updateInventory();
-
-                    // Also force update held item slot
-                    org.bukkit.inventory.ItemStack heldItem = player.getInventory().getItemInMainHand();
-                    if (heldItem != null) {
-                        // Force the client to see the held item
-                        player.getInventory().setItemInMainHand(heldItem);
-                    }
-
-                    // Force armor update
-                    org.bukkit.inventory.ItemStack[] armor = player.getInventory().getArmorContents();
-                    if (armor != null) {
-                        player.getInventory().setArmorContents(armor);
-                    }
-                }
-            }
-        }.runTaskLater(Loadscreens.getInstance(), 2L); // Small delay to ensure gamemode change is complete
-
-        // Allow inventory packets during restoration
-        playersBeingRestored.add(player.getUniqueId());
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                playersBeingRestored.remove(player.getUniqueId());
-            }
-        }.runTaskLater(Loadscreens.getInstance(), 5L); // Adjust delay as needed
+        makePlayerVisible(player);
     }
 
     @Override
@@ -292,8 +309,31 @@ public class PacketManager implements PacketListener {
         Player player = (Player) event.getPlayer();
         PacketTypeCommon packetType = event.getPacketType();
 
+        // Terrain-load signals for sessions that end on readiness
+        if (packetType == PacketType.Play.Client.CHUNK_BATCH_ACK || packetType == PacketType.Play.Client.PLAYER_LOADED) {
+            ClientReadiness tracker = readiness.get(player.getUniqueId());
+            if (tracker != null) {
+                if (packetType == PacketType.Play.Client.CHUNK_BATCH_ACK) {
+                    tracker.onBatchAcked();
+                } else {
+                    tracker.onPlayerLoaded();
+                }
+            }
+        }
+
         // Continue with existing packet blocking logic for active loadscreens
-        if (!blockedPlayers.contains(player.getUniqueId())) return;
+        LockState state = lockStates.get(player.getUniqueId());
+        if (state == null) return;
+
+        // Connection upkeep always gets through. Dropping chunk batch acks would also stall chunk
+        // sending, since the server paces batches on them, and resource pack status drives the join screen.
+        if (packetType == PacketType.Play.Client.KEEP_ALIVE ||
+                packetType == PacketType.Play.Client.PONG ||
+                packetType == PacketType.Play.Client.CHUNK_BATCH_ACK ||
+                packetType == PacketType.Play.Client.PLAYER_LOADED ||
+                packetType == PacketType.Play.Client.RESOURCE_PACK_STATUS) {
+            return;
+        }
 
         // NUCLEAR OPTION: Block ALL rotation and movement packets
         if (packetType == PacketType.Play.Client.PLAYER_ROTATION ||
@@ -340,18 +380,11 @@ public class PacketManager implements PacketListener {
             return;
         }
 
-        // Only allow specific admin commands
-        if (packetType == PacketType.Play.Client.CHAT_COMMAND) {
-            if (player.hasPermission("loadscreens.admin")) {
-                try {
-                    WrapperPlayClientChatCommand wrapper = new WrapperPlayClientChatCommand(event);
-                    String command = wrapper.getCommand().toLowerCase();
-                    if (command.startsWith("loadscreen")) {
-                        return; // Allow this command
-                    }
-                } catch (Exception e) {
-                    // If we can't parse it, block it
-                }
+        // Only allow specific admin commands. 1.20.5+ clients send unsigned commands separately.
+        if (packetType == PacketType.Play.Client.CHAT_COMMAND ||
+                packetType == PacketType.Play.Client.CHAT_COMMAND_UNSIGNED) {
+            if (state.adminCommandBypass && commandStartsWithAdminPrefix(event)) {
+                return; // Allow this command
             }
             event.setCancelled(true);
             return;
@@ -366,10 +399,43 @@ public class PacketManager implements PacketListener {
         if (!(event.getPlayer() instanceof Player)) return;
 
         Player player = (Player) event.getPlayer();
-        if (!blockedPlayers.contains(player.getUniqueId())) return;
+
+        if (event.getPacketType() == PacketType.Play.Server.CHUNK_BATCH_END) {
+            ClientReadiness tracker = readiness.get(player.getUniqueId());
+            if (tracker != null) {
+                tracker.onBatchSent();
+            }
+        }
+
+        // Drop anything that would reveal a locked player to other viewers
+        if (isEntityViewPacket(event.getPacketType()) && !isHiddenSetEmpty()) {
+            int entityId = peekEntityId(event);
+            if (entityId != player.getEntityId() && isEntityHidden(entityId)) {
+                event.setCancelled(true);
+                return;
+            }
+        }
+
+        if (!lockStates.containsKey(player.getUniqueId())) return;
 
         PacketTypeCommon packetType = event.getPacketType();
 
+        // Keep the server's own updates of the lockdown effect types from overriding the client-side ones;
+        // those are shown as they really are when the lock is lifted. Any other effect passes, so a potion
+        // taken or a beacon effect running out during the screen is up to date afterwards.
+        if (packetType == PacketType.Play.Server.ENTITY_EFFECT && peekEntityId(event) == player.getEntityId()) {
+            if (LOCKDOWN_EFFECTS.containsKey(new WrapperPlayServerEntityEffect(event).getPotionType())) {
+                event.setCancelled(true);
+            }
+            return;
+        }
+        if (packetType == PacketType.Play.Server.REMOVE_ENTITY_EFFECT && peekEntityId(event) == player.getEntityId()) {
+            if (LOCKDOWN_EFFECTS.containsKey(new WrapperPlayServerRemoveEntityEffect(event).getPotionType())) {
+                event.setCancelled(true);
+            }
+            return;
+        }
+
         // Block ALL UI-related packets aggressively
         if (packetType == PacketType.Play.Server.SET_SLOT ||
                 packetType == PacketType.Play.Server.WINDOW_ITEMS ||
@@ -381,50 +447,153 @@ public class PacketManager implements PacketListener {
                 packetType == PacketType.Play.Server.UPDATE_SCORE ||
                 packetType == PacketType.Play.Server.PLAYER_INFO_UPDATE ||
                 packetType == PacketType.Play.Server.PLAYER_INFO_REMOVE ||
+                packetType == PacketType.Play.Server.PLAYER_ABILITIES ||
                 packetType == PacketType.Play.Server.SYSTEM_CHAT_MESSAGE) {
 
             event.setCancelled(true);
         }
     }
 
-    public boolean isPlayerBlocked(Player player) {
-        return blockedPlayers.contains(player.getUniqueId());
+    private boolean isEntityViewPacket(PacketTypeCommon packetType) {
+        return packetType == PacketType.Play.Server.SPAWN_ENTITY ||
+                packetType == PacketType.Play.Server.ENTITY_METADATA ||
+                packetType == PacketType.Play.Server.ENTITY_EQUIPMENT ||
+                packetType == PacketType.Play.Server.ENTITY_RELATIVE_MOVE ||
+                packetType == PacketType.Play.Server.ENTITY_RELATIVE_MOVE_AND_ROTATION ||
+                packetType == PacketType.Play.Server.ENTITY_ROTATION ||
+                packetType == PacketType.Play.Server.ENTITY_HEAD_LOOK ||
+                packetType == PacketType.Play.Server.ENTITY_TELEPORT ||
+                packetType == PacketType.Play.Server.ENTITY_VELOCITY ||
+                packetType == PacketType.Play.Server.ENTITY_ANIMATION;
     }
 
-    public void clearAllBlocked() {
-        // Cancel all rotation lock tasks
-        for (BukkitRunnable task : rotationLockTasks.values()) {
-            if (task != null) {
-                task.cancel();
+    // Every entity view packet starts with the entity ID as a VarInt, so read just that instead of
+    // decoding the whole packet into a wrapper. The reader index is put back for PacketEvents.
+    private int peekEntityId(PacketSendEvent event) {
+        Object buffer = event.getByteBuf();
+        int readerIndex = ByteBufHelper.readerIndex(buffer);
+        try {
+            return readVarInt(buffer);
+        } finally {
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+        }
+    }
+
+    // Case-insensitive check of the command string straight from the buffer, without decoding it
+    // into a String. The command is the first field of both command packets.
+    private boolean commandStartsWithAdminPrefix(PacketReceiveEvent event) {
+        Object buffer = event.getByteBuf();
+        int readerIndex = ByteBufHelper.readerIndex(buffer);
+        try {
+            int length = readVarInt(buffer);
+            if (length < ADMIN_COMMAND_PREFIX.length) return false;
+
+            for (byte expected : ADMIN_COMMAND_PREFIX) {
+                byte current = ByteBufHelper.readByte(buffer);
+                if (current >= 'A' && current <= 'Z') {
+                    current += 'a' - 'A';
+                }
+                if (current != expected) return false;
+            }
+            return true;
+        } catch (Exception e) {
+            // If we can't parse it, block it
+            return false;
+        } finally {
+            ByteBufHelper.readerIndex(buffer, readerIndex);
+        }
+    }
+
+    private static int readVarInt(Object buffer) {
+        int value = 0;
+        int position = 0;
+        byte current;
+        do {
+            current = ByteBufHelper.readByte(buffer);
+            value |= (current & 0x7F) << position;
+            position += 7;
+        } while ((current & 0x80) != 0 && position < 35);
+        return value;
+    }
+
+    private boolean isHiddenSetEmpty() {
+        return hiddenEntities.length == 0;
+    }
+
+    // Starts tracking chunk batches for a session that ends on client readiness
+    public ClientReadiness trackReadiness(Player player) {
+        ClientReadiness tracker = new ClientReadiness();
+        readiness.put(player.getUniqueId(), tracker);
+        return tracker;
+    }
+
+    public void untrackReadiness(Player player) {
+        readiness.remove(player.getUniqueId());
+    }
+
+    private int[] reserveEntityIds(UUID uuid) {
+        return reservedEntityIds.computeIfAbsent(uuid, id -> {
+            int[] ids = new int[1 + SCENE_LAYER_COUNT];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = Bukkit.getUnsafe().nextEntityId();
             }
+            return ids;
+        });
+    }
+
+    // Entity IDs for a player's client-side scene layers, reserved alongside the camera anchor
+    public int[] getSceneEntityIds(Player player) {
+        return java.util.Arrays.copyOfRange(reserveEntityIds(player.getUniqueId()), 1, 1 + SCENE_LAYER_COUNT);
+    }
+
+    // Writes the packets inside one bundle and flushes the connection once, so the client applies them
+    // together in a single frame. Sent silently, past our own listeners.
+    public void sendBundle(Player player, List<PacketWrapper<?>> packets) {
+        if (packets.isEmpty() || !player.isOnline()) return;
+
+        User user = PacketEvents.getAPI().getPlayerManager().getUser(player);
+        if (user == null) return;
+
+        user.writePacketSilently(new WrapperPlayServerBundle());
+        for (PacketWrapper<?> packet : packets) {
+            user.writePacketSilently(packet);
+        }
+        user.writePacketSilently(new WrapperPlayServerBundle());
+        user.flushPackets();
+    }
+
+    @Override
+    public void onUserDisconnect(UserDisconnectEvent event) {
+        // Release the reserved camera anchor and scene layer IDs once the connection is gone
+        UUID uuid = event.getUser().getUUID();
+        if (uuid != null) {
+            reservedEntityIds.remove(uuid);
+            readiness.remove(uuid);
         }
-        rotationLockTasks.clear();
+    }
+
+    public boolean isPlayerBlocked(Player player) {
+        return lockStates.containsKey(player.getUniqueId());
+    }
 
+    public void clearAllBlocked() {
         // Unblock all players
-        for (UUID uuid : new HashSet<>(blockedPlayers)) {
+        for (UUID uuid : new HashSet<>(lockStates.keySet())) {
             Player player = org.bukkit.Bukkit.getPlayer(uuid);
             if (player != null) {
                 unblockPackets(player);
             }
         }
-        blockedPlayers.clear();
-        originalStates.clear();
+        lockStates.clear();
     }
 
-    // Enhanced PlayerState class
-    private static class PlayerState {
-        final float walkSpeed;
-        final float flySpeed;
-        final boolean allowFlight;
-        final boolean wasFlying;
-        final GameMode gameMode;
-
-        PlayerState(Player player) {
-            this.walkSpeed = player.getWalkSpeed();
-            this.flySpeed = player.getFlySpeed();
-            this.allowFlight = player.getAllowFlight();
-            this.wasFlying = player.isFlying();
-            this.gameMode = player.getGameMode();
+    // Per-player lockdown state, created on the main thread when the lock is applied
+    private static class LockState {
+        final boolean adminCommandBypass;
+        volatile boolean clientSpectator;
+
+        LockState(boolean adminCommandBypass) {
+            this.adminCommandBypass = adminCommandBypass;
         }
     }
 }
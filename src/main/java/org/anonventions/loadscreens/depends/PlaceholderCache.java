@@ -0,0 +1,259 @@
+package org.anonventions.loadscreens.depends;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Size-bounded, expiring cache of PlaceholderAPI results per player and token. It is a segmented LRU:
+// new entries start in the probation segment and move to the protected segment on their second hit,
+// so a burst of one-off lookups can't flush the values read on every frame. Keys are the player's UUID
+// plus the token's interned ID, so lookups don't allocate. A player's entry is dropped once their last
+// value is evicted or expires, so the map only holds players with something cached.
+public class PlaceholderCache {
+    private static final double PROTECTED_RATIO = 0.8;
+
+    private final Map<UUID, Entries> byPlayer = new HashMap<>();
+    private final Segment probation = new Segment();
+    private final Segment protectedSegment = new Segment();
+
+    private int maxSize;
+    private long ttlNanos;
+    private int size;
+
+    private long hits, misses, evictions, expirations;
+
+    public PlaceholderCache(int maxSize, long ttlNanos) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+    }
+
+    public synchronized void configure(int maxSize, long ttlNanos) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        while (size > maxSize) {
+            evictOne();
+        }
+    }
+
+    public synchronized String get(UUID player, int tokenId) {
+        Node node = find(player, tokenId);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+
+        if (node.expiresAt - System.nanoTime() <= 0) {
+            remove(node);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        touch(node);
+        return node.value;
+    }
+
+    public synchronized void put(UUID player, int tokenId, String value) {
+        if (maxSize <= 0) return;
+
+        long expiresAt = System.nanoTime() + ttlNanos;
+        Node node = find(player, tokenId);
+        if (node != null) {
+            node.value = value;
+            node.expiresAt = expiresAt;
+            touch(node);
+            return;
+        }
+
+        Entries entries = byPlayer.get(player);
+        if (entries == null) {
+            entries = new Entries(Math.max(8, tokenId + 1));
+            byPlayer.put(player, entries);
+        } else if (entries.nodes.length <= tokenId) {
+            entries.nodes = Arrays.copyOf(entries.nodes, Math.max(entries.nodes.length * 2, tokenId + 1));
+        }
+
+        node = new Node(player, tokenId, value, expiresAt);
+        entries.nodes[tokenId] = node;
+        entries.count++;
+        probation.addFirst(node);
+        size++;
+
+        while (size > maxSize) {
+            evictOne();
+        }
+    }
+
+    public synchronized void invalidate(UUID player) {
+        Entries entries = byPlayer.remove(player);
+        if (entries == null) return;
+
+        for (Node node : entries.nodes) {
+            if (node != null) {
+                node.segment.unlink(node);
+                size--;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        byPlayer.clear();
+        probation.clear();
+        protectedSegment.clear();
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private Node find(UUID player, int tokenId) {
+        Entries entries = byPlayer.get(player);
+        return entries != null && tokenId < entries.nodes.length ? entries.nodes[tokenId] : null;
+    }
+
+    private void touch(Node node) {
+        if (node.segment == protectedSegment) {
+            protectedSegment.moveToFront(node);
+            return;
+        }
+
+        // Second hit: promote, demoting the least recently used protected entries back to probation
+        probation.unlink(node);
+        protectedSegment.addFirst(node);
+        int protectedCapacity = (int) (maxSize * PROTECTED_RATIO);
+        while (protectedSegment.size > protectedCapacity) {
+            probation.addFirst(protectedSegment.removeLast());
+        }
+    }
+
+    private void evictOne() {
+        Node victim = probation.size > 0 ? probation.removeLast() : protectedSegment.removeLast();
+        if (victim == null) return;
+
+        detach(victim);
+        size--;
+        evictions++;
+    }
+
+    private void remove(Node node) {
+        node.segment.unlink(node);
+        detach(node);
+        size--;
+    }
+
+    // Clears the node's slot, and drops the player's entry once nothing of theirs is left
+    private void detach(Node node) {
+        Entries entries = byPlayer.get(node.player);
+        entries.nodes[node.tokenId] = null;
+        if (--entries.count == 0) {
+            byPlayer.remove(node.player);
+        }
+    }
+
+    // One player's nodes indexed by token ID, with how many are live
+    private static class Entries {
+        Node[] nodes;
+        int count;
+
+        Entries(int length) {
+            this.nodes = new Node[length];
+        }
+    }
+
+    private static class Node {
+        final UUID player;
+        final int tokenId;
+        String value;
+        long expiresAt;
+
+        Segment segment;
+        Node prev, next;
+
+        Node(UUID player, int tokenId, String value, long expiresAt) {
+            this.player = player;
+            this.tokenId = tokenId;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // Intrusive doubly linked list, most recently used at the head
+    private static class Segment {
+        Node head, tail;
+        int size;
+
+        void addFirst(Node node) {
+            node.segment = this;
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+            size++;
+        }
+
+        void unlink(Node node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            size--;
+        }
+
+        Node removeLast() {
+            Node node = tail;
+            if (node != null) {
+                unlink(node);
+            }
+            return node;
+        }
+
+        void moveToFront(Node node) {
+            if (head == node) return;
+            unlink(node);
+            addFirst(node);
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
@@ -2,107 +2,422 @@ package org.anonventions.loadscreens.depends;
 
 import me.clip.placeholderapi.PlaceholderAPI;
 import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.IllegalPluginAccessException;
 
-import java.util.Map;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
 public class PlaceholderManager {
-    private final Map<String, String> customPlaceholders = new HashMap<>();
-    private final Map<String, Long> placeholderCache = new ConcurrentHashMap<>();
-    private final Map<String, String> cachedValues = new ConcurrentHashMap<>();
-    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    // Rebuilt as a whole on reload and swapped in, so frames never see a half-loaded dictionary
+    private volatile CustomPlaceholderMatcher customPlaceholders = CustomPlaceholderMatcher.EMPTY;
+    private Map<String, String> customPlaceholderEntries = Map.of();
+    private final PlaceholderCache cache = new PlaceholderCache(0, 0L);
+    private final Map<String, Integer> tokenIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTokenId = new AtomicInteger();
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // Server-scope values shared by every session: taken at most once per tick, time formatted once per second
+    private volatile ServerSnapshot serverSnapshot;
+    private volatile FormattedTime formattedTime;
+
+    // Frame sources per loadscreen type, cleared whenever the config or custom placeholders reload
+    private final Map<String, FrameSource> frameSources = new ConcurrentHashMap<>();
+    private final FrameChunkCache frameChunks = new FrameChunkCache(64);
+    private final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    // PlaceholderAPI expansions allowed to resolve off the main thread
+    private volatile Set<String> asyncExpansions = Set.of();
 
     public PlaceholderManager() {
         loadCustomPlaceholders();
+        configureCache();
+        loadAsyncExpansions();
     }
 
-    private void loadCustomPlaceholders() {
+    private void configureCache() {
         var config = Loadscreens.getInstance().getConfig();
-        var customSection = config.getConfigurationSection("placeholders.custom_placeholders");
+        int maxSize = config.getInt("performance.max_cache_size", 1000);
+        long ttlNanos = config.getLong("placeholders.cache_duration", 100) * 50_000_000L; // Ticks to nanoseconds
+        cache.configure(maxSize, ttlNanos);
+        frameChunks.configure(config.getInt("performance.frame_cache_chunks", 64));
+    }
 
-        if (customSection != null) {
-            for (String key : customSection.getKeys(false)) {
-                String value = customSection.getString(key);
-                customPlaceholders.put(key, ChatColor.translateAlternateColorCodes('&', value));
+    private void loadAsyncExpansions() {
+        Set<String> expansions = new HashSet<>();
+        for (String identifier : Loadscreens.getInstance().getConfig().getStringList("placeholders.async_expansions")) {
+            expansions.add(identifier.toLowerCase(Locale.ROOT));
+        }
+        asyncExpansions = Set.copyOf(expansions);
+    }
+
+    // Gives every PlaceholderAPI token a small dense ID when a template is compiled, used as cache key
+    int tokenId(String token) {
+        return tokenIds.computeIfAbsent(token, t -> nextTokenId.getAndIncrement());
+    }
+
+    private void loadCustomPlaceholders() {
+        var plugin = Loadscreens.getInstance();
+        Map<String, String> placeholders = readCustomPlaceholders();
+        customPlaceholderEntries = placeholders;
+        customPlaceholders = CustomPlaceholderMatcher.build(placeholders);
+
+        if (plugin.getConfig().getBoolean("global.debug", false)) {
+            plugin.getLogger().info("Loaded " + customPlaceholders.size() + " custom placeholders");
+        }
+    }
+
+    private Map<String, String> readCustomPlaceholders() {
+        var plugin = Loadscreens.getInstance();
+        Map<String, String> placeholders = new LinkedHashMap<>();
+
+        // Dictionary files first, in name order, so config.yml entries can override them
+        File folder = new File(plugin.getDataFolder(), plugin.getConfig().getString("placeholders.custom_placeholder_folder", "placeholders"));
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".yml") || name.endsWith(".yaml"));
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                loadCustomSection(YamlConfiguration.loadConfiguration(file), placeholders);
             }
         }
+
+        var customSection = plugin.getConfig().getConfigurationSection("placeholders.custom_placeholders");
+        if (customSection != null) {
+            loadCustomSection(customSection, placeholders);
+        }
+        return placeholders;
     }
 
-    public String parsePlaceholders(Player player, String text) {
-        if (text == null || text.isEmpty()) return text;
+    // Keys without percent signs are wrapped, so dictionary files can use plain YAML keys
+    private void loadCustomSection(ConfigurationSection section, Map<String, String> placeholders) {
+        for (String key : section.getKeys(false)) {
+            String value = section.getString(key);
+            if (value == null) continue;
 
-        // Parse built-in placeholders first
-        text = parseBuiltinPlaceholders(player, text);
+            String token = key.startsWith("%") && key.endsWith("%") && key.length() > 1 ? key : "%" + key + "%";
+            placeholders.put(token, ChatColor.translateAlternateColorCodes('&', value));
+        }
+    }
 
-        // Parse custom placeholders
-        for (Map.Entry<String, String> entry : customPlaceholders.entrySet()) {
-            text = text.replace(entry.getKey(), entry.getValue());
+    // Opens every type's frame source up front, so file sources are indexed off the main thread before
+    // the first session needs them
+    public void openFrameSources() {
+        var types = Loadscreens.getInstance().getConfig().getConfigurationSection("loadscreen_types");
+        if (types == null) return;
+        for (String type : types.getKeys(false)) {
+            getFrameSource(type);
         }
+    }
+
+    public FrameSource getFrameSource(String type) {
+        return frameSources.computeIfAbsent(type, t -> FrameSource.create(t, this, frameChunks));
+    }
+
+    public FrameChunkCache getFrameChunks() {
+        return frameChunks;
+    }
+
+    // Custom placeholders are static text, so they are folded into the literal segments at compile time
+    public PlaceholderTemplate compile(String text) {
+        return PlaceholderTemplate.compile(customPlaceholders.replace(text), this);
+    }
 
-        // Parse PlaceholderAPI placeholders if available
-        if (Loadscreens.getInstance().isPlaceholderAPIEnabled()) {
-            // Check cache first
-            String cacheKey = player.getUniqueId().toString() + ":" + text;
-            long cacheTime = Loadscreens.getInstance().getConfig().getLong("placeholders.cache_duration", 100) * 50L; // Convert to ms
+    public String resolve(Player player, PlaceholderTemplate template) {
+        return template.resolve(this, player, builders.get());
+    }
+
+    StringBuilder builder() {
+        return builders.get();
+    }
 
-            if (placeholderCache.containsKey(cacheKey)) {
-                long lastUpdate = placeholderCache.get(cacheKey);
-                if (System.currentTimeMillis() - lastUpdate < cacheTime) {
-                    return cachedValues.getOrDefault(cacheKey, text);
+    public List<String> resolveFrames(Player player, List<PlaceholderTemplate> templates) {
+        List<String> resolved = new ArrayList<>(templates.size());
+        for (PlaceholderTemplate template : templates) {
+            resolved.add(resolve(player, template));
+        }
+        return resolved;
+    }
+
+    // Resolves a type's opening frames (up to one chunk) ahead of time. Tokens from allowlisted expansions
+    // are fetched on an async thread into the cache, then the frames are assembled back on the main
+    // thread, where the future completes. Used to prepare frames while a timer_delay runs down. Frames
+    // that aren't in memory yet (a file source still scanning or reading) are gathered on that thread too.
+    public CompletableFuture<List<String>> resolveFramesAsync(Player player, String type) {
+        Loadscreens plugin = Loadscreens.getInstance();
+        FrameSource source = getFrameSource(type);
+        boolean asyncParsing = plugin.isPlaceholderAPIEnabled() && plugin.getConfig().getBoolean("performance.async_placeholder_parsing", true);
+
+        List<PlaceholderTemplate> loaded = loadedOpeningFrames(source);
+        if (loaded != null && (!asyncParsing || !hasAsyncTokens(loaded))) {
+            return CompletableFuture.completedFuture(resolveFrames(player, loaded));
+        }
+
+        CompletableFuture<List<String>> future = new CompletableFuture<>();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            List<PlaceholderTemplate> templates = loaded != null ? loaded : readOpeningFrames(source);
+            if (asyncParsing) {
+                UUID uuid = player.getUniqueId();
+                Set<Integer> fetched = new HashSet<>();
+                for (PlaceholderTemplate template : templates) {
+                    for (int slot = 0; slot < template.getSlotCount(); slot++) {
+                        String token = template.getExternal(slot);
+                        if (token != null && isAsyncSafe(token) && fetched.add(template.getExternalId(slot))) {
+                            fetchExternal(player, uuid, token, template.getExternalId(slot));
+                        }
+                    }
                 }
             }
 
-            // Parse and cache
             try {
-                String parsed = PlaceholderAPI.setPlaceholders(player, text);
-                parsed = ChatColor.translateAlternateColorCodes('&', parsed);
+                Bukkit.getScheduler().runTask(plugin, () -> future.complete(resolveFrames(player, templates)));
+            } catch (IllegalPluginAccessException e) {
+                // Plugin disabled while we were resolving
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
 
-                // Cache the result
-                placeholderCache.put(cacheKey, System.currentTimeMillis());
-                cachedValues.put(cacheKey, parsed);
+    // The opening chunk if it is already in memory, otherwise null
+    private List<PlaceholderTemplate> loadedOpeningFrames(FrameSource source) {
+        if (!source.whenReady().isDone()) return null;
+        int count = Math.min(source.size(), FrameChunkCache.CHUNK_SIZE);
+        List<PlaceholderTemplate> templates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            PlaceholderTemplate template = source.getIfLoaded(i);
+            if (template == null) return null;
+            templates.add(template);
+        }
+        return templates;
+    }
 
-                return parsed;
-            } catch (Exception e) {
-                Loadscreens.getInstance().getLogger().warning("Failed to parse placeholders: " + e.getMessage());
+    // Off the main thread only: waits for the scan and reads the chunk from disk
+    private List<PlaceholderTemplate> readOpeningFrames(FrameSource source) {
+        source.whenReady().join();
+        int count = Math.min(source.size(), FrameChunkCache.CHUNK_SIZE);
+        List<PlaceholderTemplate> templates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            templates.add(source.get(i));
+        }
+        return templates;
+    }
+
+    private boolean hasAsyncTokens(List<PlaceholderTemplate> templates) {
+        for (PlaceholderTemplate template : templates) {
+            for (int slot = 0; slot < template.getSlotCount(); slot++) {
+                String token = template.getExternal(slot);
+                if (token != null && isAsyncSafe(token)) return true;
             }
         }
+        return false;
+    }
+
+    private boolean isAsyncSafe(String token) {
+        int underscore = token.indexOf('_');
+        return asyncExpansions.contains(token.substring(1, underscore).toLowerCase(Locale.ROOT));
+    }
+
+    public String parsePlaceholders(Player player, String text) {
+        if (text == null || text.isEmpty()) return text;
+        return resolve(player, compile(text));
+    }
+
+    String resolveExternal(Player player, String token, int tokenId) {
+        if (!Loadscreens.getInstance().isPlaceholderAPIEnabled()) return token;
+
+        // Check cache first
+        UUID uuid = player.getUniqueId();
+        String cached = cache.get(uuid, tokenId);
+        if (cached != null) {
+            return cached;
+        }
+
+        String parsed = fetchExternal(player, uuid, token, tokenId);
+        return parsed != null ? parsed : token;
+    }
+
+    // Parse and cache, returns null if the expansion failed
+    private String fetchExternal(Player player, UUID uuid, String token, int tokenId) {
+        try {
+            String parsed = PlaceholderAPI.setPlaceholders(player, token);
+            parsed = ChatColor.translateAlternateColorCodes('&', parsed);
+            cache.put(uuid, tokenId, parsed);
+            return parsed;
+        } catch (Exception e) {
+            Loadscreens.getInstance().getLogger().warning("Failed to parse placeholders: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Built-in placeholders, appended straight into the template's builder
+    void appendBuiltin(StringBuilder builder, BuiltinPlaceholder placeholder, Player player, Location location) {
+        switch (placeholder) {
+            case PLAYER_NAME:
+                builder.append(player.getName());
+                break;
+            case PLAYER_DISPLAYNAME:
+                builder.append(player.getDisplayName());
+                break;
+            case PLAYER_WORLD:
+                builder.append(player.getWorld().getName());
+                break;
+            case PLAYER_X:
+                builder.append((int) location.getX());
+                break;
+            case PLAYER_Y:
+                builder.append((int) location.getY());
+                break;
+            case PLAYER_Z:
+                builder.append((int) location.getZ());
+                break;
+            case PLAYER_HEALTH:
+                builder.append((int) player.getHealth());
+                break;
+            case PLAYER_MAX_HEALTH:
+                builder.append((int) player.getMaxHealth());
+                break;
+            case PLAYER_FOOD:
+                builder.append(player.getFoodLevel());
+                break;
+            case PLAYER_LEVEL:
+                builder.append(player.getLevel());
+                break;
+            case CURRENT_TIME:
+                builder.append(currentTime());
+                break;
+            case SERVER_NAME:
+                builder.append(serverSnapshot().name);
+                break;
+            case SERVER_MOTD:
+                builder.append(serverSnapshot().motd);
+                break;
+            case ONLINE_PLAYERS:
+                builder.append(serverSnapshot().onlinePlayers);
+                break;
+            case MAX_PLAYERS:
+                builder.append(serverSnapshot().maxPlayers);
+                break;
+        }
+    }
+
+    private ServerSnapshot serverSnapshot() {
+        int tick = Bukkit.getCurrentTick();
+        ServerSnapshot snapshot = serverSnapshot;
+        if (snapshot == null || snapshot.tick != tick) {
+            snapshot = new ServerSnapshot(tick);
+            serverSnapshot = snapshot;
+        }
+        return snapshot;
+    }
 
-        // Fallback to basic color code translation
-        return ChatColor.translateAlternateColorCodes('&', text);
+    private String currentTime() {
+        long second = System.currentTimeMillis() / 1000L;
+        FormattedTime time = formattedTime;
+        if (time == null || time.second != second) {
+            String text = TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochSecond(second), ZoneId.systemDefault()));
+            time = new FormattedTime(second, text);
+            formattedTime = time;
+        }
+        return time.text;
     }
 
     public void clearCache() {
-        placeholderCache.clear();
-        cachedValues.clear();
+        cache.clear();
+    }
+
+    public void invalidatePlayer(UUID uuid) {
+        cache.invalidate(uuid);
+    }
+
+    public PlaceholderCache getCache() {
+        return cache;
     }
 
     public void reloadCustomPlaceholders() {
-        customPlaceholders.clear();
         loadCustomPlaceholders();
+        frameSources.clear();
+        frameChunks.clear();
+        configureCache();
+        loadAsyncExpansions();
+        openFrameSources();
+    }
+
+    // Rereads the dictionary files and config entries, and recompiles every type only if they changed
+    public boolean reloadCustomPlaceholdersIfChanged() {
+        if (readCustomPlaceholders().equals(customPlaceholderEntries)) return false;
+        reloadCustomPlaceholders();
+        return true;
+    }
+
+    // Compiles the given types' frames and swaps each in whole. Sessions already running keep the
+    // source they started with; chunks of the replaced sources age out of the chunk cache.
+    public void reloadFrameSources(Set<String> changed, Set<String> removed) {
+        Map<String, FrameSource> compiled = new HashMap<>();
+        for (String type : changed) {
+            compiled.put(type, FrameSource.create(type, this, frameChunks));
+        }
+        frameSources.putAll(compiled);
+        frameSources.keySet().removeAll(removed);
     }
 
-    // Built-in placeholders
-    public String parseBuiltinPlaceholders(Player player, String text) {
-        return text
-                .replace("%player_name%", player.getName())
-                .replace("%player_displayname%", player.getDisplayName())
-                .replace("%player_world%", player.getWorld().getName())
-                .replace("%player_x%", String.valueOf((int) player.getLocation().getX()))
-                .replace("%player_y%", String.valueOf((int) player.getLocation().getY()))
-                .replace("%player_z%", String.valueOf((int) player.getLocation().getZ()))
-                .replace("%player_health%", String.valueOf((int) player.getHealth()))
-                .replace("%player_max_health%", String.valueOf((int) player.getMaxHealth()))
-                .replace("%player_food%", String.valueOf(player.getFoodLevel()))
-                .replace("%player_level%", String.valueOf(player.getLevel()))
-                .replace("%current_time%", dateFormat.format(new Date()))
-                .replace("%server_name%", player.getServer().getName())
-                .replace("%server_motd%", player.getServer().getMotd())
-                .replace("%online_players%", String.valueOf(player.getServer().getOnlinePlayers().size()))
-                .replace("%max_players%", String.valueOf(player.getServer().getMaxPlayers()));
-    }
-}
\ No newline at end of file
+    // Types whose frame file was edited since its source scanned it
+    public Set<String> staleFrameSources() {
+        Set<String> stale = new HashSet<>();
+        for (Map.Entry<String, FrameSource> entry : frameSources.entrySet()) {
+            if (entry.getValue() instanceof FileFrameSource && ((FileFrameSource) entry.getValue()).isStale()) {
+                stale.add(entry.getKey());
+            }
+        }
+        return stale;
+    }
+
+    public void reloadSettings() {
+        configureCache();
+        loadAsyncExpansions();
+    }
+
+    private static class ServerSnapshot {
+        final int tick;
+        final String name, motd;
+        final int onlinePlayers, maxPlayers;
+
+        ServerSnapshot(int tick) {
+            this.tick = tick;
+            this.name = Bukkit.getServer().getName();
+            this.motd = Bukkit.getServer().getMotd();
+            this.onlinePlayers = Bukkit.getOnlinePlayers().size();
+            this.maxPlayers = Bukkit.getMaxPlayers();
+        }
+    }
+
+    private static class FormattedTime {
+        final long second;
+        final String text;
+
+        FormattedTime(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.anonventions.loadscreens.depends;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A frame compiled once into literal segments and placeholder slots. Resolving it only fetches the
+// placeholders that are actually present and writes the result in a single pass. '&' colour codes are
+// translated in the literals at compile time and in every resolved value, as when the whole frame was
+// translated after replacing: PlaceholderAPI values when they are fetched, built-ins as they are appended.
+public class PlaceholderTemplate {
+    private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+
+    private final String source;
+    private final String[] literals;              // literals[i] comes before slot i, the last one after every slot
+    private final BuiltinPlaceholder[] builtins;  // null where the slot is a PlaceholderAPI token
+    private final String[] externals;             // PlaceholderAPI tokens, null where the slot is built-in
+    private final int[] externalIds;              // Interned token IDs used as cache keys
+    private final boolean usesLocation;
+
+    private PlaceholderTemplate(String source, List<String> literals, List<BuiltinPlaceholder> builtins, List<String> externals, PlaceholderManager manager) {
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.builtins = builtins.toArray(new BuiltinPlaceholder[0]);
+        this.externals = externals.toArray(new String[0]);
+        this.externalIds = new int[this.externals.length];
+        for (int i = 0; i < this.externals.length; i++) {
+            this.externalIds[i] = this.externals[i] != null ? manager.tokenId(this.externals[i]) : -1;
+        }
+
+        boolean location = false;
+        for (BuiltinPlaceholder builtin : this.builtins) {
+            if (builtin != null && builtin.usesLocation()) {
+                location = true;
+                break;
+            }
+        }
+        this.usesLocation = location;
+    }
+
+    static PlaceholderTemplate compile(String source, PlaceholderManager manager) {
+        List<String> literals = new ArrayList<>();
+        List<BuiltinPlaceholder> builtins = new ArrayList<>();
+        List<String> externals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int index = 0;
+        int length = source.length();
+        while (index < length) {
+            char c = source.charAt(index);
+            if (c == '%') {
+                int end = source.indexOf('%', index + 1);
+                if (end > index + 1) {
+                    String token = source.substring(index, end + 1);
+                    BuiltinPlaceholder builtin = BuiltinPlaceholder.byToken(token);
+                    if (builtin != null || isExternalToken(source, index + 1, end)) {
+                        literals.add(ChatColor.translateAlternateColorCodes('&', literal.toString()));
+                        literal.setLength(0);
+                        builtins.add(builtin);
+                        externals.add(builtin == null ? token : null);
+                        index = end + 1;
+                        continue;
+                    }
+                }
+            }
+            literal.append(c);
+            index++;
+        }
+        literals.add(ChatColor.translateAlternateColorCodes('&', literal.toString()));
+
+        return new PlaceholderTemplate(source, literals, builtins, externals, manager);
+    }
+
+    // PlaceholderAPI only recognises %identifier_params% without whitespace
+    private static boolean isExternalToken(String source, int start, int end) {
+        int underscore = -1;
+        for (int i = start; i < end; i++) {
+            char c = source.charAt(i);
+            if (Character.isWhitespace(c)) return false;
+            if (c == '_' && underscore < 0) underscore = i;
+        }
+        return underscore > start && underscore < end - 1;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isConstant() {
+        return builtins.length == 0;
+    }
+
+    int getSlotCount() {
+        return builtins.length;
+    }
+
+    // PlaceholderAPI token in the given slot, or null if the slot is built-in
+    String getExternal(int slot) {
+        return externals[slot];
+    }
+
+    int getExternalId(int slot) {
+        return externalIds[slot];
+    }
+
+    String resolve(PlaceholderManager manager, Player player, StringBuilder builder) {
+        if (builtins.length == 0) return literals[0];
+
+        builder.setLength(0);
+        Location location = usesLocation ? player.getLocation() : null;
+        for (int i = 0; i < builtins.length; i++) {
+            builder.append(literals[i]);
+            if (builtins[i] != null) {
+                int start = builder.length();
+                manager.appendBuiltin(builder, builtins[i], player, location);
+                translateColors(builder, start);
+            } else {
+                builder.append(manager.resolveExternal(player, externals[i], externalIds[i]));
+            }
+        }
+        builder.append(literals[builtins.length]);
+        return builder.toString();
+    }
+
+    // Resolves every slot into values, allocating only for slots whose value changed. Returns true if
+    // any slot changed.
+    boolean resolveSlots(PlaceholderManager manager, Player player, String[] values, StringBuilder scratch) {
+        boolean changed = false;
+        Location location = usesLocation ? player.getLocation() : null;
+        for (int i = 0; i < builtins.length; i++) {
+            if (builtins[i] != null) {
+                scratch.setLength(0);
+                manager.appendBuiltin(scratch, builtins[i], player, location);
+                translateColors(scratch, 0);
+                if (values[i] == null || !values[i].contentEquals(scratch)) {
+                    values[i] = scratch.toString();
+                    changed = true;
+                }
+            } else {
+                String value = manager.resolveExternal(player, externals[i], externalIds[i]);
+                if (!value.equals(values[i])) {
+                    values[i] = value;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+
+    // ChatColor.translateAlternateColorCodes('&', ...) over the builder from the given index, in place.
+    // A display name or MOTD may carry colour codes; most values have no '&' and are only scanned.
+    private static void translateColors(StringBuilder builder, int from) {
+        for (int i = from; i < builder.length() - 1; i++) {
+            if (builder.charAt(i) == '&' && COLOR_CODES.indexOf(builder.charAt(i + 1)) > -1) {
+                builder.setCharAt(i, ChatColor.COLOR_CHAR);
+                builder.setCharAt(i + 1, Character.toLowerCase(builder.charAt(i + 1)));
+            }
+        }
+    }
+
+    String assemble(String[] values, StringBuilder builder) {
+        builder.setLength(0);
+        for (int i = 0; i < builtins.length; i++) {
+            builder.append(literals[i]).append(values[i]);
+        }
+        builder.append(literals[builtins.length]);
+        return builder.toString();
+    }
+}
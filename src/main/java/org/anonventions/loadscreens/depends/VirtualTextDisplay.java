@@ -0,0 +1,189 @@
+package org.anonventions.loadscreens.depends;
+
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataType;
+import com.github.retrooper.packetevents.protocol.entity.data.EntityDataTypes;
+import com.github.retrooper.packetevents.protocol.entity.type.EntityTypes;
+import com.github.retrooper.packetevents.util.Quaternion4f;
+import com.github.retrooper.packetevents.util.Vector3d;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnEntity;
+import net.kyori.adventure.text.Component;
+import org.anonventions.loadscreens.util.SceneLayer;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+// A text display that only exists on the clients it is sent to. Setters record changed metadata, and
+// flush() turns it into a single metadata packet, so a tick's changes can go out together in one bundle.
+public class VirtualTextDisplay implements SceneLayer {
+    // Display and TextDisplay metadata indices (1.20.2+ layout)
+    private static final int TRANSLATION_INDEX = 11;
+    private static final int SCALE_INDEX = 12;
+    private static final int LEFT_ROTATION_INDEX = 13;
+    private static final int RIGHT_ROTATION_INDEX = 14;
+    private static final int BILLBOARD_INDEX = 15;
+    private static final int BRIGHTNESS_INDEX = 16;
+    private static final int GLOW_COLOR_INDEX = 22;
+    private static final int TEXT_INDEX = 23;
+    private static final int LINE_WIDTH_INDEX = 24;
+    private static final int BACKGROUND_INDEX = 25;
+    private static final int TEXT_OPACITY_INDEX = 26;
+    private static final int FLAGS_INDEX = 27;
+    private static final int INDEX_COUNT = 28;
+
+    private static final byte FLAG_SHADOW = 0x01;
+    private static final byte FLAG_SEE_THROUGH = 0x02;
+    private static final byte FLAG_DEFAULT_BACKGROUND = 0x04;
+
+    private final int entityId;
+    private final Location location;
+    private final EntityData[] values = new EntityData[INDEX_COUNT];
+    private final BitSet dirty = new BitSet(INDEX_COUNT);
+
+    private Transformation transformation = new Transformation(new Vector3f(), new Quaternionf(), new Vector3f(1, 1, 1), new Quaternionf());
+    private byte flags;
+
+    public VirtualTextDisplay(int entityId, Location location) {
+        this.entityId = entityId;
+        this.location = location.clone();
+    }
+
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public void text(Component text) {
+        set(TEXT_INDEX, EntityDataTypes.ADV_COMPONENT, text);
+    }
+
+    @Override
+    public void setTextOpacity(byte opacity) {
+        set(TEXT_OPACITY_INDEX, EntityDataTypes.BYTE, opacity);
+    }
+
+    @Override
+    public Transformation getTransformation() {
+        return transformation;
+    }
+
+    @Override
+    public void setTransformation(Transformation transformation) {
+        this.transformation = transformation;
+        set(TRANSLATION_INDEX, EntityDataTypes.VECTOR3F, toPacketVector(transformation.getTranslation()));
+        set(LEFT_ROTATION_INDEX, EntityDataTypes.QUATERNION, toPacketQuaternion(transformation.getLeftRotation()));
+        set(SCALE_INDEX, EntityDataTypes.VECTOR3F, toPacketVector(transformation.getScale()));
+        set(RIGHT_ROTATION_INDEX, EntityDataTypes.QUATERNION, toPacketQuaternion(transformation.getRightRotation()));
+    }
+
+    @Override
+    public void setBillboard(Display.Billboard billboard) {
+        // Enum order matches the protocol: FIXED, VERTICAL, HORIZONTAL, CENTER
+        set(BILLBOARD_INDEX, EntityDataTypes.BYTE, (byte) billboard.ordinal());
+    }
+
+    @Override
+    public void setSeeThrough(boolean seeThrough) {
+        setFlag(FLAG_SEE_THROUGH, seeThrough);
+    }
+
+    @Override
+    public void setShadowed(boolean shadowed) {
+        setFlag(FLAG_SHADOW, shadowed);
+    }
+
+    @Override
+    public void setLineWidth(int width) {
+        set(LINE_WIDTH_INDEX, EntityDataTypes.INT, width);
+    }
+
+    @Override
+    public void setDefaultBackground(boolean defaultBackground) {
+        setFlag(FLAG_DEFAULT_BACKGROUND, defaultBackground);
+    }
+
+    @Override
+    public void setBackgroundColor(Color color) {
+        set(BACKGROUND_INDEX, EntityDataTypes.INT, color != null ? color.asARGB() : 0);
+    }
+
+    @Override
+    public void setBrightness(Display.Brightness brightness) {
+        int packed = brightness != null ? (brightness.getBlockLight() << 4) | (brightness.getSkyLight() << 20) : -1;
+        set(BRIGHTNESS_INDEX, EntityDataTypes.INT, packed);
+    }
+
+    @Override
+    public void setGlowColorOverride(Color color) {
+        set(GLOW_COLOR_INDEX, EntityDataTypes.INT, color != null ? color.asARGB() : -1);
+    }
+
+    // Spawn plus the full metadata, for when the layer first appears
+    public void spawn(List<PacketWrapper<?>> out) {
+        out.add(new WrapperPlayServerSpawnEntity(
+                entityId,
+                Optional.of(UUID.randomUUID()),
+                EntityTypes.TEXT_DISPLAY,
+                new Vector3d(location.getX(), location.getY(), location.getZ()),
+                location.getPitch(),
+                location.getYaw(),
+                location.getYaw(),
+                0,
+                Optional.empty()
+        ));
+
+        List<EntityData> data = new ArrayList<>();
+        for (EntityData value : values) {
+            if (value != null) data.add(value);
+        }
+        if (!data.isEmpty()) {
+            out.add(new WrapperPlayServerEntityMetadata(entityId, data));
+        }
+        dirty.clear();
+    }
+
+    // Metadata changed since the last spawn or flush, if any
+    public void flush(List<PacketWrapper<?>> out) {
+        if (dirty.isEmpty()) return;
+
+        List<EntityData> data = new ArrayList<>(dirty.cardinality());
+        for (int index = dirty.nextSetBit(0); index >= 0; index = dirty.nextSetBit(index + 1)) {
+            data.add(values[index]);
+        }
+        dirty.clear();
+        out.add(new WrapperPlayServerEntityMetadata(entityId, data));
+    }
+
+    private <T> void set(int index, EntityDataType<T> type, T value) {
+        EntityData current = values[index];
+        if (current != null && Objects.equals(current.getValue(), value)) return;
+
+        values[index] = new EntityData(index, type, value);
+        dirty.set(index);
+    }
+
+    private void setFlag(byte flag, boolean enabled) {
+        flags = (byte) (enabled ? flags | flag : flags & ~flag);
+        set(FLAGS_INDEX, EntityDataTypes.BYTE, flags);
+    }
+
+    private static com.github.retrooper.packetevents.util.Vector3f toPacketVector(Vector3f vector) {
+        return new com.github.retrooper.packetevents.util.Vector3f(vector.x, vector.y, vector.z);
+    }
+
+    private static Quaternion4f toPacketQuaternion(Quaternionf quaternion) {
+        return new Quaternion4f(quaternion.x, quaternion.y, quaternion.z, quaternion.w);
+    }
+}
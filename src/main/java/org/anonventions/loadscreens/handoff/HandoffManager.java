@@ -0,0 +1,146 @@
+package org.anonventions.loadscreens.handoff;
+
+import org.anonventions.loadscreens.api.LoadscreenOptions;
+import org.anonventions.loadscreens.api.SessionResult;
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.anonventions.loadscreens.util.LoadscreenManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+// Carries a running loadscreen across a server switch. The origin starts the screen, lets it come up,
+// then hands its state to the transport; the destination resumes the same animation where it left off
+// instead of playing its join screen. Main thread only.
+public class HandoffManager {
+    public static final String CHANNEL = "loadscreens:handoff";
+
+    private final HandoffTransport transport;
+    private final Map<UUID, PendingResume> pendingResumes = new HashMap<>();
+
+    public HandoffManager() {
+        var config = Loadscreens.getInstance().getConfig();
+        if ("local".equalsIgnoreCase(config.getString("handoff.transport", "proxy"))) {
+            transport = new LocalHandoffTransport(this, config.getInt("handoff.local_delay_ticks", 40));
+        } else {
+            transport = new ProxyHandoffTransport(this);
+        }
+    }
+
+    // Shows the transfer screen and asks the transport to move the player once it is up. The future
+    // completes when the origin session does: usually ABORTED with "player left" once the proxy moved
+    // them, or with "awaited work failed" if they were still here after handoff.timeout_ticks.
+    public CompletableFuture<SessionResult> transfer(Player player, String server, String type) {
+        var config = Loadscreens.getInstance().getConfig();
+        int startDelay = config.getInt("handoff.start_delay_ticks", 20);
+        int timeout = config.getInt("handoff.timeout_ticks", 200);
+
+        // Held open until the player is gone; only ever completed by the timeout
+        CompletableFuture<Void> departed = new CompletableFuture<>();
+        CompletableFuture<SessionResult> result = LoadscreenManager.show(player, type, LoadscreenOptions.defaults()
+                .delay(0)
+                .ignoreCooldown()
+                .until(departed)
+                .maxTicks(startDelay + timeout + 20));
+        if (result.isDone()) return result;
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                if (!player.isOnline()) return;
+
+                HandoffState state = LoadscreenManager.captureHandoff(player);
+                if (state == null) return; // The screen was stopped before the transfer
+                transport.transfer(player, server, state);
+
+                if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+                    Loadscreens.getInstance().getLogger().info("Handing " + player.getName() + " off to '" + server + "' with " + state);
+                }
+            }
+        }.runTaskLater(Loadscreens.getInstance(), startDelay);
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                departed.completeExceptionally(new TimeoutException("Transfer to " + server + " timed out"));
+            }
+        }.runTaskLater(Loadscreens.getInstance(), startDelay + timeout);
+
+        return result;
+    }
+
+    // A handoff arrived for a player on this server, or about to be
+    public void receive(HandoffState state) {
+        // The resume skips the cooldown, so only accept types that exist here and are switched on
+        var config = Loadscreens.getInstance().getConfig();
+        String basePath = "loadscreen_types." + state.getType();
+        if (!config.isConfigurationSection(basePath) || !config.getBoolean(basePath + ".enabled", false)
+                || state.getFrameIndex() < 0 || state.getTicks() < 0 || state.getOpacity() < 0 || state.getOpacity() > 255) {
+            Loadscreens.getInstance().getLogger().warning("Ignoring handoff for " + state.getPlayer() + ": type '" + state.getType() +
+                    "' is not an enabled loadscreen type here, or the state is out of range");
+            return;
+        }
+
+        Player player = Bukkit.getPlayer(state.getPlayer());
+        if (player == null || !player.isOnline()) {
+            long window = Loadscreens.getInstance().getConfig().getLong("handoff.resume_window_seconds", 10) * 1000L;
+            pendingResumes.put(state.getPlayer(), new PendingResume(state, System.currentTimeMillis() + window));
+            return;
+        }
+        resume(player, state);
+    }
+
+    // Called on join; returns true if a handoff was waiting, in which case it replaces the join screen
+    public boolean resumePending(Player player) {
+        PendingResume pending = pendingResumes.remove(player.getUniqueId());
+        expireStale();
+        if (pending == null || pending.expiresAt < System.currentTimeMillis()) return false;
+
+        resume(player, pending.state);
+        return true;
+    }
+
+    public void shutdown() {
+        transport.close();
+        pendingResumes.clear();
+    }
+
+    private void resume(Player player, HandoffState state) {
+        LoadscreenManager.show(player, state.getType(), LoadscreenOptions.defaults()
+                .delay(0)
+                .ignoreCooldown()
+                .resume(state.getFrameIndex(), state.getTicks(), state.getOpacity()))
+                .thenAccept(result -> {
+                    if (result.getStatus() == SessionResult.Status.REJECTED) {
+                        Loadscreens.getInstance().getLogger().warning("Could not resume handed-off loadscreen '" + state.getType() +
+                                "' for " + player.getName() + ": " + result.getReason());
+                    }
+                });
+    }
+
+    private void expireStale() {
+        long now = System.currentTimeMillis();
+        Iterator<PendingResume> it = pendingResumes.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt < now) {
+                it.remove();
+            }
+        }
+    }
+
+    private static class PendingResume {
+        final HandoffState state;
+        final long expiresAt;
+
+        PendingResume(HandoffState state, long expiresAt) {
+            this.state = state;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.anonventions.loadscreens.handoff;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.UUID;
+
+// Where a player's loadscreen was when it left the origin server, enough for the destination to pick
+// the same animation up without restarting it.
+//
+// Wire format on the loadscreens:handoff channel, all big-endian:
+//   byte   protocol version
+//   UTF    message kind: "transfer" (backend -> proxy) or "resume" (proxy -> backend)
+//   UTF    target server, transfer only
+//   long   player UUID, most significant bits
+//   long   player UUID, least significant bits
+//   UTF    loadscreen type
+//   int    frame index
+//   int    ticks shown
+//   int    text opacity, 0-255
+public class HandoffState {
+    public static final int PROTOCOL_VERSION = 1;
+    public static final String TRANSFER = "transfer";
+    public static final String RESUME = "resume";
+
+    private final UUID player;
+    private final String type;
+    private final int frameIndex;
+    private final int ticks;
+    private final int opacity;
+
+    public HandoffState(UUID player, String type, int frameIndex, int ticks, int opacity) {
+        this.player = player;
+        this.type = type;
+        this.frameIndex = frameIndex;
+        this.ticks = ticks;
+        this.opacity = opacity;
+    }
+
+    public UUID getPlayer() {
+        return player;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public int getOpacity() {
+        return opacity;
+    }
+
+    public static byte[] encode(String kind, String targetServer, HandoffState state) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(PROTOCOL_VERSION);
+            out.writeUTF(kind);
+            if (TRANSFER.equals(kind)) {
+                out.writeUTF(targetServer);
+            }
+            out.writeLong(state.player.getMostSignificantBits());
+            out.writeLong(state.player.getLeastSignificantBits());
+            out.writeUTF(state.type);
+            out.writeInt(state.frameIndex);
+            out.writeInt(state.ticks);
+            out.writeInt(state.opacity);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // Writing to memory doesn't fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Returns null for anything that isn't a resume message in a version this build understands. Transfer
+    // messages only ever travel backend -> proxy, so one arriving here was sent by a client and is refused.
+    public static HandoffState decodeResume(byte[] message) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(message));
+            if (in.readUnsignedByte() != PROTOCOL_VERSION) return null;
+            if (!RESUME.equals(in.readUTF())) return null;
+            UUID player = new UUID(in.readLong(), in.readLong());
+            return new HandoffState(player, in.readUTF(), in.readInt(), in.readInt(), in.readInt());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HandoffState{" + player + ", " + type + ", frame " + frameIndex + ", " + ticks + " ticks, opacity " + opacity + "}";
+    }
+}
@@ -0,0 +1,13 @@
+package org.anonventions.loadscreens.handoff;
+
+import org.bukkit.entity.Player;
+
+// Moves a player and their loadscreen state to another server. The state comes back through
+// HandoffManager#receive on whichever server the player lands on.
+public interface HandoffTransport {
+
+    void transfer(Player player, String server, HandoffState state);
+
+    default void close() {
+    }
+}
@@ -0,0 +1,37 @@
+package org.anonventions.loadscreens.handoff;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+// Stand-in for the proxy on a single server: the state goes through the same encoding and, after a
+// simulated transfer time, is delivered back to this server as if the player had just arrived. The
+// player never leaves, so the whole resume path can be tried without a network.
+public class LocalHandoffTransport implements HandoffTransport {
+    private final HandoffManager manager;
+    private final int delayTicks;
+
+    public LocalHandoffTransport(HandoffManager manager, int delayTicks) {
+        this.manager = manager;
+        this.delayTicks = delayTicks;
+    }
+
+    @Override
+    public void transfer(Player player, String server, HandoffState state) {
+        byte[] resume = HandoffState.encode(HandoffState.RESUME, null, state);
+
+        if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+            Loadscreens.getInstance().getLogger().info("Local handoff: pretending to move " + player.getName() + " to '" + server + "'");
+        }
+
+        new BukkitRunnable() {
+            @Override
+            public void run() {
+                HandoffState decoded = HandoffState.decodeResume(resume);
+                if (decoded != null) {
+                    manager.receive(decoded);
+                }
+            }
+        }.runTaskLater(Loadscreens.getInstance(), delayTicks);
+    }
+}
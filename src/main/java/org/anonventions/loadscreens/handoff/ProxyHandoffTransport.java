@@ -0,0 +1,52 @@
+package org.anonventions.loadscreens.handoff;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+// Talks to the proxy-side companion over plugin messages. The origin sends a "transfer" message on the
+// player's connection; the proxy moves the player and, once they are connected to the target, sends the
+// state back to it as a "resume" message.
+//
+// Proxies forward plugin messages sent by clients to the backend, so a client could forge a resume.
+// The proxy companion must drop client-sent messages on this channel; on our side a resume is only
+// accepted on the connection of the player it names, and HandoffManager checks the type.
+public class ProxyHandoffTransport implements HandoffTransport, PluginMessageListener {
+    private final HandoffManager manager;
+
+    public ProxyHandoffTransport(HandoffManager manager) {
+        this.manager = manager;
+        Loadscreens plugin = Loadscreens.getInstance();
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, HandoffManager.CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, HandoffManager.CHANNEL, this);
+    }
+
+    @Override
+    public void transfer(Player player, String server, HandoffState state) {
+        player.sendPluginMessage(Loadscreens.getInstance(), HandoffManager.CHANNEL,
+                HandoffState.encode(HandoffState.TRANSFER, server, state));
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!HandoffManager.CHANNEL.equals(channel)) return;
+
+        HandoffState state = HandoffState.decodeResume(message);
+        if (state == null) {
+            Loadscreens.getInstance().getLogger().warning("Ignoring malformed handoff message via " + player.getName());
+            return;
+        }
+        if (!state.getPlayer().equals(player.getUniqueId())) {
+            Loadscreens.getInstance().getLogger().warning("Ignoring handoff message via " + player.getName() + " naming another player");
+            return;
+        }
+        manager.receive(state);
+    }
+
+    @Override
+    public void close() {
+        Loadscreens plugin = Loadscreens.getInstance();
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, HandoffManager.CHANNEL);
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, HandoffManager.CHANNEL, this);
+    }
+}
@@ -0,0 +1,231 @@
+package org.anonventions.loadscreens.util;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import net.kyori.adventure.key.Key;
+import net.kyori.adventure.text.Component;
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.anonventions.loadscreens.depends.FrameSource;
+import org.anonventions.loadscreens.depends.PacketFanout;
+import org.anonventions.loadscreens.depends.PlaceholderTemplate;
+import org.anonventions.loadscreens.depends.VirtualTextDisplay;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.util.Transformation;
+import org.joml.Quaternionf;
+import org.joml.Vector3f;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One animation shown at a spot in the world to everyone nearby, e.g. the leave screen over a player who
+// quit. A single display and animation state serve every viewer: each step's changes are built once
+// and encoded once for all viewers, so a viewer costs only the write. Viewers aren't locked down
+// and are re-picked every REFRESH_TICKS as players come and go.
+public class BroadcastSession {
+    private static final int REFRESH_TICKS = 10;
+
+    private final String type;
+    private final Player subject;
+    private final Location location;
+    private final double range;
+
+    private final FrameSource frames;
+    private final Map<Integer, String> resolved = new HashMap<>();
+    private final int frameInterval, duration, fadeInDuration, fadeOutDuration, fadeInOpacityStart, fadeOutOpacityEnd, opacity;
+    private final String font;
+
+    private final Set<Player> viewers = new LinkedHashSet<>();
+    private final List<PacketWrapper<?>> pending = new ArrayList<>();
+    private final SceneLayer display;
+    private final VirtualTextDisplay virtual;   // With PacketEvents
+    private final TextDisplay entity;           // Without; hidden by default and shown per viewer
+
+    private BukkitRunnable task;
+    private int frame, ticks;
+    private String lastText;
+
+    private BroadcastSession(String type, Player subject, FileConfiguration config, double range) {
+        String basePath = "loadscreen_types." + type + ".";
+        this.type = type;
+        this.subject = subject;
+        this.range = range;
+        this.location = subject.getLocation().add(0, config.getDouble(basePath + "broadcast_y_offset", 2.2), 0);
+        this.frames = Loadscreens.getInstance().getPlaceholderManager().getFrameSource(type);
+        this.frameInterval = Math.max(1, config.getInt(basePath + "frame_interval", 4));
+        this.duration = config.getInt(basePath + "duration", 40);
+        this.fadeInDuration = config.getInt(basePath + "fade_in_duration", 0);
+        this.fadeOutDuration = config.getInt(basePath + "fade_out_duration", 0);
+        this.fadeInOpacityStart = config.getInt(basePath + "fade_in_opacity_start", 0);
+        this.fadeOutOpacityEnd = config.getInt(basePath + "fade_out_opacity_end", 0);
+        this.opacity = config.getInt(basePath + "opacity", 255);
+        this.font = config.getString(basePath + "font", "minecraft:default");
+
+        float scale = (float) config.getDouble(basePath + "broadcast_scale", 1.0);
+        if (Loadscreens.getInstance().isPacketEventsEnabled()) {
+            virtual = new VirtualTextDisplay(Bukkit.getUnsafe().nextEntityId(), location);
+            entity = null;
+            display = virtual;
+        } else {
+            virtual = null;
+            entity = location.getWorld().spawn(location, TextDisplay.class, e -> {
+                e.setVisibleByDefault(false);
+                e.setPersistent(false);
+            });
+            display = new EntitySceneLayer(entity);
+        }
+
+        display.setTransformation(new Transformation(new Vector3f(), new Quaternionf(), new Vector3f(scale, scale, scale), new Quaternionf()));
+        display.setBillboard(Display.Billboard.CENTER);
+        display.setShadowed(false);
+        display.setLineWidth(400);
+        display.setDefaultBackground(false);
+        display.setBackgroundColor(org.bukkit.Color.fromARGB(0, 0, 0, 0));
+        display.setTextOpacity((byte) (fadeInDuration > 0 ? fadeInOpacityStart : opacity));
+        updateText();
+    }
+
+    // Returns null if the type has no frames, or its frame file is still being scanned
+    public static BroadcastSession start(String type, Player subject, double range) {
+        FileConfiguration config = Loadscreens.getInstance().getConfig();
+        FrameSource source = Loadscreens.getInstance().getPlaceholderManager().getFrameSource(type);
+        if (!source.whenReady().isDone() || source.size() == 0) return null;
+
+        BroadcastSession session = new BroadcastSession(type, subject, config, range);
+        session.refreshViewers();
+        session.task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                session.step();
+            }
+        };
+        session.task.runTaskTimer(Loadscreens.getInstance(), session.frameInterval, session.frameInterval);
+        return session;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int getViewerCount() {
+        return viewers.size();
+    }
+
+    private void step() {
+        ticks += frameInterval;
+        if (ticks >= duration) {
+            LoadscreenManager.stopBroadcast(this);
+            return;
+        }
+
+        frame++;
+        updateText();
+        display.setTextOpacity((byte) currentOpacity());
+
+        // Viewers who stay get this step's changes; new viewers get the whole display afterwards
+        if (virtual != null) {
+            virtual.flush(pending);
+            send(viewers);
+        }
+        if ((ticks / frameInterval) % Math.max(1, REFRESH_TICKS / frameInterval) == 0) {
+            refreshViewers();
+        }
+    }
+
+    // A frame whose chunk is still being read leaves the previous one up
+    private void updateText() {
+        String text = resolved.computeIfAbsent(frame % frames.size(), index -> {
+            PlaceholderTemplate template = frames.getIfLoaded(index);
+            return template != null ? Loadscreens.getInstance().getPlaceholderManager().resolve(subject, template) : null;
+        });
+        if (text == null || text.equals(lastText)) return;
+
+        Component component = Component.text(text);
+        display.text(font.equals("minecraft:default") ? component : component.font(Key.key(font)));
+        lastText = text;
+    }
+
+    private int currentOpacity() {
+        int current = opacity;
+        if (ticks < fadeInDuration) {
+            current = fadeInOpacityStart + (opacity - fadeInOpacityStart) * ticks / fadeInDuration;
+        } else if (fadeOutDuration > 0 && ticks >= duration - fadeOutDuration) {
+            int elapsed = ticks - (duration - fadeOutDuration);
+            current = opacity - (opacity - fadeOutOpacityEnd) * Math.min(elapsed, fadeOutDuration) / fadeOutDuration;
+        }
+        return Math.max(0, Math.min(255, current));
+    }
+
+    private void refreshViewers() {
+        Set<Player> inRange = new LinkedHashSet<>();
+        for (Player player : PlayerGrid.nearby(location, range)) {
+            // Anyone behind their own loadscreen wouldn't see it anyway
+            if (!player.equals(subject) && !LoadscreenManager.hasActiveLoadscreen(player)) {
+                inRange.add(player);
+            }
+        }
+
+        List<Player> left = new ArrayList<>();
+        for (Player viewer : viewers) {
+            if (!inRange.contains(viewer) || !viewer.isOnline()) left.add(viewer);
+        }
+        for (Player viewer : left) {
+            viewers.remove(viewer);
+            hideFrom(viewer);
+        }
+
+        List<Player> joined = new ArrayList<>();
+        for (Player player : inRange) {
+            if (viewers.add(player)) joined.add(player);
+        }
+        if (joined.isEmpty()) return;
+
+        if (virtual != null) {
+            virtual.spawn(pending);
+            send(joined);
+        } else {
+            for (Player player : joined) {
+                player.showEntity(Loadscreens.getInstance(), entity);
+            }
+        }
+    }
+
+    private void send(Iterable<Player> targets) {
+        if (pending.isEmpty()) return;
+        PacketFanout.send(targets, pending);
+        pending.clear();
+    }
+
+    private void hideFrom(Player viewer) {
+        if (!viewer.isOnline()) return;
+        if (virtual != null) {
+            PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerDestroyEntities(virtual.getEntityId()));
+        } else {
+            viewer.hideEntity(Loadscreens.getInstance(), entity);
+        }
+    }
+
+    void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        for (Player viewer : viewers) {
+            hideFrom(viewer);
+        }
+        viewers.clear();
+        if (entity != null) {
+            entity.remove();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Loads the chunks around a loadscreen's destination through Paper's async chunk loading and holds a
+// plugin ticket on each one until the session ends, so the player arrives in terrain that's already
+// there. A plugin only gets one ticket per chunk, so tickets are reference counted across sessions.
+public class ChunkPreload {
+    private static final Map<UUID, Map<Long, Integer>> ticketCounts = new HashMap<>();
+
+    private final World world;
+    private final int total;
+    private final List<Long> ticketed = new ArrayList<>();
+    private int completed;
+    private boolean released;
+
+    private ChunkPreload(World world, int total) {
+        this.world = world;
+        this.total = total;
+    }
+
+    public static ChunkPreload start(Location center, int radius) {
+        World world = center.getWorld();
+        radius = Math.max(0, Math.min(radius, world.getViewDistance()));
+        int centerX = center.getBlockX() >> 4;
+        int centerZ = center.getBlockZ() >> 4;
+
+        ChunkPreload preload = new ChunkPreload(world, (radius * 2 + 1) * (radius * 2 + 1));
+
+        // Ring by ring from the centre, so the chunks the player sees first are queued first
+        for (int ring = 0; ring <= radius; ring++) {
+            for (int x = -ring; x <= ring; x++) {
+                for (int z = -ring; z <= ring; z++) {
+                    if (Math.max(Math.abs(x), Math.abs(z)) == ring) {
+                        preload.request(centerX + x, centerZ + z);
+                    }
+                }
+            }
+        }
+        return preload;
+    }
+
+    private void request(int x, int z) {
+        // Paper completes these on the main thread
+        world.getChunkAtAsync(x, z, true).whenComplete((chunk, error) -> {
+            if (!released && chunk != null) {
+                acquire(chunk);
+            }
+            completed++;
+        });
+    }
+
+    private void acquire(Chunk chunk) {
+        long key = Chunk.getChunkKey(chunk.getX(), chunk.getZ());
+        Map<Long, Integer> counts = ticketCounts.computeIfAbsent(world.getUID(), id -> new HashMap<>());
+        if (counts.merge(key, 1, Integer::sum) == 1) {
+            world.addPluginChunkTicket(chunk.getX(), chunk.getZ(), Loadscreens.getInstance());
+        }
+        ticketed.add(key);
+    }
+
+    public boolean isDone() {
+        return completed >= total;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    // Drops this session's tickets; the player's own tickets keep the chunks around from here
+    public void release() {
+        if (released) return;
+        released = true;
+
+        Map<Long, Integer> counts = ticketCounts.get(world.getUID());
+        if (counts == null) return;
+
+        for (long key : ticketed) {
+            Integer count = counts.get(key);
+            if (count == null) continue;
+            if (count > 1) {
+                counts.put(key, count - 1);
+            } else {
+                counts.remove(key);
+                world.removePluginChunkTicket((int) key, (int) (key >> 32), Loadscreens.getInstance());
+            }
+        }
+        ticketed.clear();
+
+        if (counts.isEmpty()) {
+            ticketCounts.remove(world.getUID());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.anonventions.loadscreens.util;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Color;
+import org.bukkit.entity.Display;
+import org.bukkit.entity.TextDisplay;
+import org.bukkit.util.Transformation;
+
+// Scene layer backed by a real TextDisplay, used when PacketEvents is not available
+public class EntitySceneLayer implements SceneLayer {
+    private final TextDisplay display;
+
+    public EntitySceneLayer(TextDisplay display) {
+        this.display = display;
+    }
+
+    public TextDisplay getDisplay() {
+        return display;
+    }
+
+    @Override
+    public void text(Component text) {
+        display.text(text);
+    }
+
+    @Override
+    public void setTextOpacity(byte opacity) {
+        display.setTextOpacity(opacity);
+    }
+
+    @Override
+    public Transformation getTransformation() {
+        return display.getTransformation();
+    }
+
+    @Override
+    public void setTransformation(Transformation transformation) {
+        display.setTransformation(transformation);
+    }
+
+    @Override
+    public void setBillboard(Display.Billboard billboard) {
+        display.setBillboard(billboard);
+    }
+
+    @Override
+    public void setSeeThrough(boolean seeThrough) {
+        display.setSeeThrough(seeThrough);
+    }
+
+    @Override
+    public void setShadowed(boolean shadowed) {
+        display.setShadowed(shadowed);
+    }
+
+    @Override
+    public void setLineWidth(int width) {
+        display.setLineWidth(width);
+    }
+
+    @Override
+    public void setDefaultBackground(boolean defaultBackground) {
+        display.setDefaultBackground(defaultBackground);
+    }
+
+    @Override
+    public void setBackgroundColor(Color color) {
+        display.setBackgroundColor(color);
+    }
+
+    @Override
+    public void setBrightness(Display.Brightness brightness) {
+        display.setBrightness(brightness);
+    }
+
+    @Override
+    public void setGlowColorOverride(Color color) {
+        display.setGlowColorOverride(color);
+    }
+}
@@ -0,0 +1,117 @@
+package org.anonventions.loadscreens.util;
+
+import com.github.retrooper.packetevents.protocol.entity.data.EntityData;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerEntityMetadata;
+import org.anonventions.loadscreens.depends.PacketFanout;
+import org.anonventions.loadscreens.depends.PacketManager;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Loadscreens started together for many players, e.g. /loadscreen show @a restart. Members' scenes share
+// one set of scene entity IDs, so whenever their layers change the same way in a tick the metadata
+// packets are identical. Scenes hand their bundles in here instead of sending them, and at the end of
+// the tick every distinct bundle goes out through PacketFanout to the players who produced it, encoded
+// once when shared encoding is on. Spawns carry each viewer's own position and still go out per viewer.
+// A group counts as a single session against max_concurrent_sessions.
+public class FanoutGroup {
+    private static final Set<FanoutGroup> active = new HashSet<>();
+    private static int totalMembers;
+
+    private final int[] sceneEntityIds = new int[PacketManager.SCENE_LAYER_COUNT];
+    private final Map<Player, List<PacketWrapper<?>>> submitted = new LinkedHashMap<>();
+    private int members;
+
+    public FanoutGroup() {
+        for (int i = 0; i < sceneEntityIds.length; i++) {
+            sceneEntityIds[i] = Bukkit.getUnsafe().nextEntityId();
+        }
+    }
+
+    public int[] getSceneEntityIds() {
+        return sceneEntityIds.clone();
+    }
+
+    void join() {
+        totalMembers++;
+        if (members++ == 0) {
+            active.add(this);
+        }
+    }
+
+    void leave(Player viewer) {
+        submitted.remove(viewer);
+        totalMembers--;
+        if (--members <= 0) {
+            active.remove(this);
+        }
+    }
+
+    boolean hasMembers() {
+        return members > 0;
+    }
+
+    // Takes a copy; the scene reuses its list
+    void submit(Player viewer, List<PacketWrapper<?>> packets) {
+        submitted.computeIfAbsent(viewer, p -> new ArrayList<>()).addAll(packets);
+    }
+
+    // Called at the end of every server tick
+    public static void flushAll() {
+        if (active.isEmpty()) return;
+        for (FanoutGroup group : active) {
+            group.flush();
+        }
+    }
+
+    public static int getActiveCount() {
+        return active.size();
+    }
+
+    // Sessions running as part of a group, across all groups
+    static int getMemberCount() {
+        return totalMembers;
+    }
+
+    private void flush() {
+        if (submitted.isEmpty()) return;
+
+        Map<Object, List<Player>> viewersByBundle = new LinkedHashMap<>();
+        Map<Object, List<PacketWrapper<?>>> bundles = new LinkedHashMap<>();
+        for (Map.Entry<Player, List<PacketWrapper<?>>> entry : submitted.entrySet()) {
+            Object key = signature(entry.getValue());
+            viewersByBundle.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.getKey());
+            bundles.putIfAbsent(key, entry.getValue());
+        }
+        submitted.clear();
+
+        for (Map.Entry<Object, List<Player>> entry : viewersByBundle.entrySet()) {
+            PacketFanout.send(entry.getValue(), bundles.get(entry.getKey()));
+        }
+    }
+
+    // Equal signatures mean byte-identical bundles. Only metadata is compared by value; anything else
+    // makes the bundle unique to its viewer.
+    private static Object signature(List<PacketWrapper<?>> packets) {
+        List<Object> signature = new ArrayList<>();
+        for (PacketWrapper<?> packet : packets) {
+            if (!(packet instanceof WrapperPlayServerEntityMetadata)) {
+                return packets;
+            }
+            WrapperPlayServerEntityMetadata metadata = (WrapperPlayServerEntityMetadata) packet;
+            signature.add(metadata.getEntityId());
+            for (EntityData data : metadata.getEntityMetadata()) {
+                signature.add(data.getIndex());
+                signature.add(data.getValue());
+            }
+        }
+        return signature;
+    }
+}
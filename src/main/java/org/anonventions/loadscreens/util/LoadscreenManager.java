@@ -1,11 +1,24 @@
 package org.anonventions.loadscreens.util;
 
+import org.anonventions.loadscreens.api.LoadscreenEndEvent;
+import org.anonventions.loadscreens.api.LoadscreenOptions;
+import org.anonventions.loadscreens.api.LoadscreenStartEvent;
+import org.anonventions.loadscreens.api.SessionResult;
 import org.anonventions.loadscreens.core.Loadscreens;
+import org.anonventions.loadscreens.depends.ClientReadiness;
+import org.anonventions.loadscreens.depends.FrameSource;
+import org.anonventions.loadscreens.depends.InlineFrameSource;
+import org.anonventions.loadscreens.depends.LiveFrame;
 import org.anonventions.loadscreens.depends.PlaceholderManager;
+import org.anonventions.loadscreens.depends.PlaceholderTemplate;
+import org.anonventions.loadscreens.handoff.HandoffState;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerResourcePackStatusEvent;
+import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.Location;
 import org.bukkit.entity.TextDisplay;
-import org.bukkit.potion.PotionEffectType;
 import org.bukkit.util.Transformation;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.Sound;
@@ -16,14 +29,21 @@ import net.kyori.adventure.key.Key;
 import org.joml.Quaternionf;
 import org.joml.Vector3f;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class LoadscreenManager {
     private static final Map<UUID, LoadscreenSession> activeSessions = new ConcurrentHashMap<>();
     private static final Map<UUID, Long> lastLoadscreen = new ConcurrentHashMap<>();
+    private static final Set<BroadcastSession> broadcasts = new HashSet<>();
+    private static final Map<UUID, PendingPreload> pendingPreloads = new ConcurrentHashMap<>();
 
     // Main method with type support
     public static void showLoadscreen(Player player, String type) {
@@ -31,78 +51,236 @@ public class LoadscreenManager {
     }
 
     public static void showLoadscreen(Player player, String type, int customDelay) {
+        show(player, type, LoadscreenOptions.defaults().delay(customDelay > 0 ? customDelay : -1));
+    }
+
+    // Shows one type to many players at once. With PacketEvents their scenes form a FanoutGroup, so
+    // frames that come out the same for everyone are sent as one batch and count as one session.
+    public static void showGroup(Collection<Player> players, String type, int customDelay) {
+        FanoutGroup group = players.size() > 1 && Loadscreens.getInstance().isPacketEventsEnabled() ? new FanoutGroup() : null;
+        LoadscreenOptions options = LoadscreenOptions.defaults().delay(customDelay > 0 ? customDelay : -1);
+        for (Player player : players) {
+            show(player, type, options, group);
+        }
+    }
+
+    // Requests a session; the future completes on the main thread once it ends, is aborted or is rejected
+    public static CompletableFuture<SessionResult> show(Player player, String type, LoadscreenOptions options) {
+        return show(player, type, options, null);
+    }
+
+    private static CompletableFuture<SessionResult> show(Player player, String type, LoadscreenOptions options, FanoutGroup group) {
         var config = Loadscreens.getInstance().getConfig();
+        CompletableFuture<SessionResult> result = new CompletableFuture<>();
 
-        if (!config.getBoolean("global.enabled", true)) return;
+        if (!config.getBoolean("global.enabled", true)) {
+            result.complete(SessionResult.rejected(player, type, "loadscreens are disabled"));
+            return result;
+        }
 
         // Check if specific type is enabled
         if (!config.getBoolean("loadscreen_types." + type + ".enabled", false)) {
             if (config.getBoolean("global.debug", false)) {
                 Loadscreens.getInstance().getLogger().info("Loadscreen type '" + type + "' is disabled");
             }
-            return;
+            result.complete(SessionResult.rejected(player, type, "type is disabled"));
+            return result;
         }
 
-        // Get delay from config (in seconds) and convert to ticks, or use custom delay
+        // Get delay from config (in seconds) and convert to ticks, or use the requested delay. Types that
+        // wait for the resource pack start right away, so the pack-independent screen covers the download.
         int delayTicks;
-        if (customDelay > 0) {
-            delayTicks = customDelay;
+        if (options.getDelayTicks() >= 0) {
+            delayTicks = options.getDelayTicks();
+        } else if (config.getBoolean("loadscreen_types." + type + ".wait_for_resource_pack", false)) {
+            delayTicks = 0;
         } else {
             double delaySeconds = config.getDouble("loadscreen_types." + type + ".timer_delay", 0.0);
             delayTicks = (int) (delaySeconds * 20); // Convert seconds to ticks (20 ticks = 1 second)
         }
 
-        // Schedule the loadscreen
+        // Log rejections here; sessions that started log themselves when they stop. Requests for
+        // disabled types never get this far and aren't logged.
+        long requestedAt = System.nanoTime();
+        int requestedDelay = delayTicks;
+        result.thenAccept(outcome -> {
+            if (outcome.getStatus() == SessionResult.Status.REJECTED) {
+                releasePendingPreload(player, type);
+                SessionLog.record(type, outcome.getStatus(), outcome.getReason(), requestedDelay,
+                        (System.nanoTime() - requestedAt) / 1_000_000, config.getInt("loadscreen_types." + type + ".duration", 100),
+                        0, player.getPing(), Bukkit.getAverageTickTime());
+            }
+        });
+
+        // Schedule the loadscreen, resolving its frames while the delay runs down
         if (delayTicks > 0) {
+            CompletableFuture<List<String>> preparedFrames = Loadscreens.getInstance().getPlaceholderManager().resolveFramesAsync(player, type);
             new BukkitRunnable() {
                 @Override
                 public void run() {
-                    showLoadscreenNow(player, type);
+                    if (!player.isOnline()) {
+                        result.complete(SessionResult.rejected(player, type, "player went offline"));
+                        return;
+                    }
+                    showLoadscreenNow(player, type, preparedFrames, options, group, result, requestedAt, requestedDelay);
                 }
             }.runTaskLater(Loadscreens.getInstance(), delayTicks);
         } else {
-            showLoadscreenNow(player, type);
+            showLoadscreenNow(player, type, null, options, group, result, requestedAt, requestedDelay);
         }
+        return result;
     }
 
-    private static void showLoadscreenNow(Player player, String type) {
+    private static void showLoadscreenNow(Player player, String type, CompletableFuture<List<String>> preparedFrames,
+                                          LoadscreenOptions options, FanoutGroup group, CompletableFuture<SessionResult> result,
+                                          long requestedAt, int requestedDelay) {
+        // A frame file still being scanned would stall the tick on its first size(); start once it's done
+        FrameSource source = Loadscreens.getInstance().getPlaceholderManager().getFrameSource(type);
+        if (!source.whenReady().isDone()) {
+            source.whenReady().whenComplete((ignored, error) -> {
+                try {
+                    Bukkit.getScheduler().runTask(Loadscreens.getInstance(), () -> {
+                        if (!player.isOnline()) {
+                            result.complete(SessionResult.rejected(player, type, "player went offline"));
+                            return;
+                        }
+                        showLoadscreenNow(player, type, preparedFrames, options, group, result, requestedAt, requestedDelay);
+                    });
+                } catch (IllegalPluginAccessException e) {
+                    // Plugin disabled while the file was being scanned
+                    result.complete(SessionResult.rejected(player, type, "plugin disabled"));
+                }
+            });
+            return;
+        }
+
         var config = Loadscreens.getInstance().getConfig();
         String basePath = "loadscreen_types." + type + ".";
 
         // Check cooldown
         long cooldown = config.getLong(basePath + "cooldown_seconds", 0) * 1000L;
-        if (cooldown > 0 && lastLoadscreen.containsKey(player.getUniqueId())) {
+        if (!options.isIgnoreCooldown() && cooldown > 0 && lastLoadscreen.containsKey(player.getUniqueId())) {
             long timeSince = System.currentTimeMillis() - lastLoadscreen.get(player.getUniqueId());
-            if (timeSince < cooldown) return;
+            if (timeSince < cooldown) {
+                result.complete(SessionResult.rejected(player, type, "on cooldown"));
+                return;
+            }
         }
 
         // Check permission
         if (config.getBoolean(basePath + "require_permission", false) &&
                 !player.hasPermission(config.getString(basePath + "permission_node", "loadscreens.view"))) {
+            result.complete(SessionResult.rejected(player, type, "missing permission"));
             return;
         }
 
         // Check first join only
         if (config.getBoolean(basePath + "first_join_only", false) && player.hasPlayedBefore()) {
+            result.complete(SessionResult.rejected(player, type, "not a first join"));
             return;
         }
 
-        // Check max concurrent sessions
+        // Check show once, per content version
+        boolean showOnce = config.getBoolean(basePath + "show_once", false);
+        int contentVersion = config.getInt(basePath + "content_version", 1);
+        if (showOnce && SeenStores.hasSeen(type, contentVersion, player.getUniqueId())) {
+            result.complete(SessionResult.rejected(player, type, "already seen"));
+            return;
+        }
+
+        // Check max concurrent sessions. A group shown together counts as one session, checked as its first
+        // member starts, so showing a type to everyone online isn't cut off at the cap.
         int maxSessions = config.getInt("global.max_concurrent_sessions", 50);
-        if (activeSessions.size() >= maxSessions) {
+        int sessions = activeSessions.size() - FanoutGroup.getMemberCount() + FanoutGroup.getActiveCount();
+        if ((group == null || !group.hasMembers()) && sessions >= maxSessions) {
             Loadscreens.getInstance().getLogger().warning("Max concurrent sessions reached, skipping loadscreen for " + player.getName());
+            result.complete(SessionResult.rejected(player, type, "max concurrent sessions reached"));
             return;
         }
 
-        // Stop existing session
-        stopLoadscreen(player);
+        // A screen handed off from another server isn't replaced by the join screen that raced it
+        LoadscreenSession current = activeSessions.get(player.getUniqueId());
+        if (current != null && current.resumed && "join".equals(type)) {
+            result.complete(SessionResult.rejected(player, type, "a handed-off loadscreen is showing"));
+            return;
+        }
 
-        // Create new session
-        LoadscreenSession session = new LoadscreenSession(player, config, type, basePath);
-        activeSessions.put(player.getUniqueId(), session);
-        lastLoadscreen.put(player.getUniqueId(), System.currentTimeMillis());
+        if (source.size() == 0) {
+            if (config.getBoolean("global.debug", false)) {
+                Loadscreens.getInstance().getLogger().warning("No frames configured for type: " + type);
+            }
+            result.complete(SessionResult.rejected(player, type, "no frames configured"));
+            return;
+        }
 
-        session.start();
+        // Fired last, so listeners only hear about sessions that are really starting
+        LoadscreenStartEvent startEvent = new LoadscreenStartEvent(player, type);
+        Bukkit.getPluginManager().callEvent(startEvent);
+        if (startEvent.isCancelled()) {
+            result.complete(SessionResult.rejected(player, type, "start event cancelled"));
+            return;
+        }
+
+        // Stop existing session. Its end event and future wait until the new session is registered, so a
+        // callback that shows yet another screen replaces this one properly instead of being overwritten.
+        LoadscreenSession replaced = activeSessions.remove(player.getUniqueId());
+        SessionResult replacedResult = replaced != null ? replaced.end(SessionResult.Status.ABORTED, "replaced by a new loadscreen") : null;
+
+        try {
+            // Create new session
+            LoadscreenSession session = new LoadscreenSession(player, config, type, basePath, preparedFrames, options, group, result,
+                    requestedAt, requestedDelay);
+            activeSessions.put(player.getUniqueId(), session);
+            lastLoadscreen.put(player.getUniqueId(), System.currentTimeMillis());
+
+            session.start();
+        } finally {
+            if (replaced != null) {
+                replaced.publish(replacedResult);
+            }
+        }
+    }
+
+    // Starts loading the chunks at a teleport or respawn destination before the player moves there. The
+    // next session of the type takes the preload over; a rejected one releases it.
+    public static void preloadDestination(Player player, String type, Location destination) {
+        var config = Loadscreens.getInstance().getConfig();
+        String basePath = "loadscreen_types." + type + ".";
+        if (!config.getBoolean(basePath + "enabled", false) || !config.getBoolean(basePath + "preload_chunks", false)) return;
+
+        ChunkPreload preload = ChunkPreload.start(destination, config.getInt(basePath + "preload_radius", 3));
+        PendingPreload previous = pendingPreloads.put(player.getUniqueId(), new PendingPreload(type, preload));
+        if (previous != null) {
+            previous.preload.release();
+        }
+    }
+
+    // The pending preload for this type, if any; one for another type is released
+    private static ChunkPreload takePendingPreload(Player player, String type) {
+        PendingPreload pending = pendingPreloads.remove(player.getUniqueId());
+        if (pending == null) return null;
+        if (!pending.type.equals(type)) {
+            pending.preload.release();
+            return null;
+        }
+        return pending.preload;
+    }
+
+    private static void releasePendingPreload(Player player, String type) {
+        PendingPreload pending = pendingPreloads.get(player.getUniqueId());
+        if (pending != null && pending.type.equals(type) && pendingPreloads.remove(player.getUniqueId(), pending)) {
+            pending.preload.release();
+        }
+    }
+
+    private static class PendingPreload {
+        final String type;
+        final ChunkPreload preload;
+
+        PendingPreload(String type, ChunkPreload preload) {
+            this.type = type;
+            this.preload = preload;
+        }
     }
 
     // Legacy method for backward compatibility
@@ -111,49 +289,132 @@ public class LoadscreenManager {
     }
 
     public static void stopLoadscreen(Player player) {
+        stopLoadscreen(player, SessionResult.Status.ABORTED, "stopped");
+    }
+
+    static boolean stopLoadscreen(Player player, SessionResult.Status status, String reason) {
         LoadscreenSession session = activeSessions.remove(player.getUniqueId());
         if (session != null) {
-            session.stop();
+            session.stop(status, reason);
         }
+        return session != null;
     }
 
     public static void cleanupPlayerData(Player player) {
-        // Remove active session
-        stopLoadscreen(player);
+        // Remove active session and restore right away, the player is leaving and can't wait for the queue
+        stopLoadscreen(player, SessionResult.Status.ABORTED, "player left");
+        RestoreQueue.flush(player);
 
         // Remove cooldown data to prevent interference on rejoin
         lastLoadscreen.remove(player.getUniqueId());
+        SeenStores.forget(player.getUniqueId());
+        RegionIndex.forget(player.getUniqueId());
+        PendingPreload pending = pendingPreloads.remove(player.getUniqueId());
+        if (pending != null) {
+            pending.preload.release();
+        }
+
+        // Drop their cached placeholder values
+        Loadscreens.getInstance().getPlaceholderManager().invalidatePlayer(player.getUniqueId());
 
         if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
             Loadscreens.getInstance().getLogger().info("Cleaned up all data for " + player.getName());
         }
     }
 
-    public static void stopAllLoadscreens() {
-        for (LoadscreenSession session : activeSessions.values()) {
+    // Shows the type once, at the subject's position, to every player within range. Viewers share one
+    // display and aren't locked down, unlike a session per viewer.
+    public static BroadcastSession broadcast(Player subject, String type, double range) {
+        var config = Loadscreens.getInstance().getConfig();
+        if (!config.getBoolean("global.enabled", true) || !config.getBoolean("loadscreen_types." + type + ".enabled", false)) {
+            return null;
+        }
+
+        BroadcastSession session = BroadcastSession.start(type, subject, range);
+        if (session != null) {
+            broadcasts.add(session);
+            if (config.getBoolean("global.debug", false)) {
+                Loadscreens.getInstance().getLogger().info("Broadcasting '" + type + "' for " + subject.getName() + " to " + session.getViewerCount() + " viewers");
+            }
+        }
+        return session;
+    }
+
+    static void stopBroadcast(BroadcastSession session) {
+        if (broadcasts.remove(session)) {
             session.stop();
         }
-        activeSessions.clear();
+    }
+
+    public static int getBroadcastCount() {
+        return broadcasts.size();
+    }
+
+    public static void stopAllLoadscreens() {
+        for (BroadcastSession broadcast : broadcasts) {
+            broadcast.stop();
+        }
+        broadcasts.clear();
+
+        // Taken out of the map before they end, since ending runs callbacks that may start new sessions;
+        // those are then ended on the next pass rather than dropped unended
+        while (!activeSessions.isEmpty()) {
+            List<LoadscreenSession> stopping = new ArrayList<>(activeSessions.values());
+            activeSessions.clear();
+            for (LoadscreenSession session : stopping) {
+                session.stop(SessionResult.Status.ABORTED, "plugin disabled");
+            }
+        }
+    }
+
+    public static void handleResourcePackStatus(Player player, PlayerResourcePackStatusEvent.Status status) {
+        LoadscreenSession session = activeSessions.get(player.getUniqueId());
+        if (session != null) {
+            session.onResourcePackStatus(status);
+        }
     }
 
     public static boolean hasActiveLoadscreen(Player player) {
         return activeSessions.containsKey(player.getUniqueId());
     }
 
+    public static String getActiveType(Player player) {
+        LoadscreenSession session = activeSessions.get(player.getUniqueId());
+        return session != null ? session.type : null;
+    }
+
+    // Where the player's screen is right now, for carrying it to another server
+    public static HandoffState captureHandoff(Player player) {
+        LoadscreenSession session = activeSessions.get(player.getUniqueId());
+        if (session == null) return null;
+        return new HandoffState(player.getUniqueId(), session.type, session.animationFrame, session.animationTicks, session.shownOpacity);
+    }
+
     public static int getActiveSessionCount() {
         return activeSessions.size();
     }
 
     // Session class with enhanced fade effects
     private static class LoadscreenSession {
+        private static final int MAX_LIVE_FRAMES = 256;
+
         private final Player player;
-        private final List<String> frames;
+        private final FrameSource frameSource;
+        private FrameSource activeFrames;
+        private int animationFrame, animationTicks;
+
+        // Resource pack wait: a pack-independent screen loops until the pack has loaded
+        private final boolean waitForResourcePack;
+        private final FrameSource packFrames;
+        private final int resourcePackTimeout;
+        private boolean waitingForPack;
+        private int packWaitTicks;
         private final String type;
         private final String basePath;
         private final boolean debug;
 
         // Configuration values
-        private final int frameInterval, duration, fadeInDuration, fadeOutDuration;
+        private final int frameInterval, duration, fadeInDuration, fadeOutDuration, updateInterval;
         private final int fadeInOpacityStart, fadeOutOpacityEnd;
         private final boolean fadeSmooth;
         private final double scale, yOffset, zOffset, xOffset;
@@ -182,30 +443,103 @@ public class LoadscreenManager {
         // New fields for look direction
         private final double lookYaw, lookPitch;
 
-        private TextDisplay display;
+        // Readiness-driven end
+        private final boolean endWhenReady;
+        private final int readyGrace, readyFloor, readyCeiling, readyQuietTicks;
+        private ClientReadiness readiness;
+        private int readyTick = -1;
+        private int endTick;
+
+        // API request state: awaited work holds the screen like readiness does
+        private final CompletableFuture<SessionResult> result;
+        private final CompletableFuture<?> awaiting;
+        private boolean awaitSettled, held;
+        private int startTick;
+
+        // Analytics: how long the request waited and what the server looked like when it started
+        private final long requestedAt;
+        private final int requestedDelay;
+        private long queueDelayMillis;
+        private int pingAtStart;
+        private double tickTimeAtStart;
+
+        // Resumed from another server: starts mid-animation at the opacity the origin showed
+        private final boolean resumed;
+        private final int resumeOpacity;
+        private int shownOpacity;
+
+        // Destination chunk preloading
+        private final boolean preloadChunks;
+        private final boolean showOnce;
+        private final int contentVersion, showOnceMinTicks;
+        private final int preloadRadius;
+        private ChunkPreload chunkPreload;
+
+        // Scene layers
+        private final boolean useBackground;
+        private final org.bukkit.Color backgroundColor;
+        private final int backgroundWidth, backgroundLines;
+        private final double backgroundScale, backgroundYOffset;
+        private final boolean progressBar;
+        private final int progressBarLength;
+        private final String progressBarFilled, progressBarEmpty;
+        private final double progressBarYOffset, progressBarScale;
+        private final String subtitle;
+        private final double subtitleYOffset, subtitleScale;
+
+        private LoadscreenScene scene;
+        private int progressCells = -1;
+        private LiveFrame subtitleFrame;
         private BukkitRunnable animationTask;
         private BukkitRunnable positionLockTask;
-        private List<String> parsedFrames;
+        // Per-viewer state for the dynamic frames shown so far; constant frames come straight from the source
+        private final Map<Integer, LiveFrame> liveFrames = new java.util.HashMap<>();
+        private String lastText, lastFrameText = "";
+        private int lastColor = -1;
+        private final CompletableFuture<List<String>> preparedFrames;
+        private final FanoutGroup group;
         private Location originalLocation;
         private float originalYaw, originalPitch;
 
-        // Store original player state for proper restoration
-        private org.bukkit.GameMode originalGameMode;
-        private float originalWalkSpeed, originalFlySpeed;
-        private boolean originalAllowFlight;
+        // Original player state, restored through the RestoreQueue when the session ends
+        private RestorePlan restorePlan;
 
-        public LoadscreenSession(Player player, org.bukkit.configuration.file.FileConfiguration config, String type, String basePath) {
+        public LoadscreenSession(Player player, org.bukkit.configuration.file.FileConfiguration config, String type, String basePath,
+                                 CompletableFuture<List<String>> preparedFrames, LoadscreenOptions options, FanoutGroup group,
+                                 CompletableFuture<SessionResult> result, long requestedAt, int requestedDelay) {
             this.player = player;
+            this.group = group;
+            this.requestedAt = requestedAt;
+            this.requestedDelay = requestedDelay;
+            this.preparedFrames = preparedFrames;
+            this.result = result;
+            this.awaiting = options.getAwaiting();
+            this.resumed = options.isResume();
+            this.resumeOpacity = options.getResumeOpacity();
+            if (resumed) {
+                this.animationFrame = options.getResumeFrame();
+                this.animationTicks = options.getResumeTicks();
+            }
             this.type = type;
             this.basePath = basePath;
             this.debug = config.getBoolean("global.debug", false);
 
             // Load configuration
-            this.frames = config.getStringList(basePath + "frames");
+            this.frameSource = Loadscreens.getInstance().getPlaceholderManager().getFrameSource(type);
+            this.waitForResourcePack = config.getBoolean(basePath + "wait_for_resource_pack", false);
+            this.resourcePackTimeout = config.getInt(basePath + "resource_pack_timeout_ticks", 1200);
+            if (waitForResourcePack) {
+                List<String> waitFrames = config.getStringList(basePath + "resource_pack_frames");
+                this.packFrames = new InlineFrameSource(waitFrames.isEmpty() ? List.of("&7Loading resources...") : waitFrames,
+                        Loadscreens.getInstance().getPlaceholderManager());
+            } else {
+                this.packFrames = null;
+            }
             this.frameInterval = config.getInt(basePath + "frame_interval", 4);
             this.duration = config.getInt(basePath + "duration", 100);
             this.fadeInDuration = config.getInt(basePath + "fade_in_duration", 10);
             this.fadeOutDuration = config.getInt(basePath + "fade_out_duration", 10);
+            this.updateInterval = config.getInt("placeholders.update_interval", 5);
             this.fadeInOpacityStart = config.getInt(basePath + "fade_in_opacity_start", 0);
             this.fadeOutOpacityEnd = config.getInt(basePath + "fade_out_opacity_end", 0);
             this.fadeSmooth = config.getBoolean(basePath + "fade_smooth", true);
@@ -272,12 +606,65 @@ public class LoadscreenManager {
             // New fields for look direction
             this.lookYaw = config.getDouble(basePath + "look_yaw", 0.0);
             this.lookPitch = config.getDouble(basePath + "look_pitch", 0.0);
+
+            // Readiness-driven end
+            this.endWhenReady = config.getBoolean(basePath + "end_when_ready", false);
+            this.readyGrace = config.getInt(basePath + "ready_grace_ticks", 10);
+            // At least long enough to fade in and out, so a fast client still gets the whole fade
+            this.readyFloor = Math.max(config.getInt(basePath + "ready_floor_ticks", 20), fadeInDuration + fadeOutDuration);
+            this.readyCeiling = options.getMaxTicks() > 0 ? options.getMaxTicks() : config.getInt(basePath + "ready_ceiling_ticks", duration * 3);
+            this.readyQuietTicks = config.getInt(basePath + "ready_quiet_ticks", 10);
+            this.preloadChunks = config.getBoolean(basePath + "preload_chunks", false);
+            this.showOnce = config.getBoolean(basePath + "show_once", false);
+            this.contentVersion = config.getInt(basePath + "content_version", 1);
+            this.showOnceMinTicks = config.getInt(basePath + "show_once_min_ticks", 40);
+            this.preloadRadius = config.getInt(basePath + "preload_radius", 3);
+            this.endTick = duration;
+
+            // Scene layers
+            this.useBackground = config.getBoolean(basePath + "use_background", false);
+            this.backgroundColor = org.bukkit.Color.fromARGB(
+                    clampColor(config.getInt(basePath + "background_color_alpha", 80)),
+                    clampColor(config.getInt(basePath + "background_color_red", 0)),
+                    clampColor(config.getInt(basePath + "background_color_green", 0)),
+                    clampColor(config.getInt(basePath + "background_color_blue", 0)));
+            this.backgroundWidth = config.getInt(basePath + "background_width", 20);
+            this.backgroundLines = config.getInt(basePath + "background_lines", 5);
+            this.backgroundScale = config.getDouble(basePath + "background_scale", scale);
+            this.backgroundYOffset = config.getDouble(basePath + "background_y_offset", 0.0);
+            this.progressBar = config.getBoolean(basePath + "progress_bar", false);
+            this.progressBarLength = Math.max(1, config.getInt(basePath + "progress_bar_length", 20));
+            this.progressBarFilled = ChatColor.translateAlternateColorCodes('&', config.getString(basePath + "progress_bar_filled", "&a|"));
+            this.progressBarEmpty = ChatColor.translateAlternateColorCodes('&', config.getString(basePath + "progress_bar_empty", "&8|"));
+            this.progressBarYOffset = config.getDouble(basePath + "progress_bar_y_offset", -0.3);
+            this.progressBarScale = config.getDouble(basePath + "progress_bar_scale", 0.3);
+            this.subtitle = config.getString(basePath + "subtitle", "");
+            this.subtitleYOffset = config.getDouble(basePath + "subtitle_y_offset", -0.45);
+            this.subtitleScale = config.getDouble(basePath + "subtitle_scale", 0.25);
         }
 
+        private static int clampColor(int value) {
+            return Math.max(0, Math.min(255, value));
+        }
+
+        // The type is known to have frames by the time a session is created
         public void start() {
-            if (frames.isEmpty()) {
-                if (debug) Loadscreens.getInstance().getLogger().warning("No frames configured for type: " + type);
-                return;
+            startTick = Bukkit.getCurrentTick();
+            queueDelayMillis = (System.nanoTime() - requestedAt) / 1_000_000;
+            pingAtStart = player.getPing();
+            tickTimeAtStart = Bukkit.getAverageTickTime();
+
+            // The glyph frames need the resource pack, so show the pack-independent screen until it loads
+            waitingForPack = !resumed && waitForResourcePack && player.getResourcePackStatus() != PlayerResourcePackStatusEvent.Status.SUCCESSFULLY_LOADED;
+            activeFrames = waitingForPack ? packFrames : frameSource;
+
+            // Normally started from the teleport or respawn event before the move; a session shown some
+            // other way preloads around where the player is now
+            ChunkPreload pending = takePendingPreload(player, type);
+            if (preloadChunks) {
+                chunkPreload = pending != null ? pending : ChunkPreload.start(player.getLocation(), preloadRadius);
+            } else if (pending != null) {
+                pending.release();
             }
 
             // Store original position and rotation
@@ -285,17 +672,11 @@ public class LoadscreenManager {
             originalYaw = player.getLocation().getYaw();
             originalPitch = player.getLocation().getPitch();
 
-            // Store original player state for proper restoration
-            originalGameMode = player.getGameMode();
-            originalWalkSpeed = player.getWalkSpeed();
-            originalFlySpeed = player.getFlySpeed();
-            originalAllowFlight = player.getAllowFlight();
-
-            if (debug) {
-                Loadscreens.getInstance().getLogger().info("Stored original state for " + player.getName() +
-                    " - GameMode: " + originalGameMode + ", WalkSpeed: " + originalWalkSpeed +
-                    ", FlySpeed: " + originalFlySpeed + ", AllowFlight: " + originalAllowFlight);
-            }
+            // Store original player state for proper restoration. If the previous session's restore
+            // hasn't run yet the player is still locked down, so reuse that plan instead of capturing
+            // the lockdown state and restoring twice in a row.
+            RestorePlan pendingPlan = RestoreQueue.take(player);
+            restorePlan = pendingPlan != null ? pendingPlan : RestorePlan.capture(player);
 
             // Only change look direction if specified in config, don't teleport to find "safe" location
             if (lookYaw != 0.0 || lookPitch != 0.0) {
@@ -311,10 +692,20 @@ public class LoadscreenManager {
 
             // Parse placeholders in frames
             parsePlaceholders();
+            if (!subtitle.isEmpty() && Loadscreens.getInstance().isPacketEventsEnabled()) {
+                PlaceholderManager pm = Loadscreens.getInstance().getPlaceholderManager();
+                PlaceholderTemplate template = pm.compile(subtitle);
+                subtitleFrame = new LiveFrame(template, pm.resolve(player, template), Bukkit.getCurrentTick());
+            }
+
+            // Track chunk loading from the start, including anything the look teleport triggered
+            if (endWhenReady && Loadscreens.getInstance().isPacketEventsEnabled()) {
+                readiness = Loadscreens.getInstance().getPacketManager().trackReadiness(player);
+            }
 
             // ALWAYS apply packet blocking to prevent mouse movement
             if (Loadscreens.getInstance().isPacketEventsEnabled()) {
-                Loadscreens.getInstance().getPacketManager().blockPackets(player);
+                Loadscreens.getInstance().getPacketManager().blockPackets(player, type);
                 if (debug) {
                     Loadscreens.getInstance().getLogger().info("Blocked all input packets for " + player.getName());
                 }
@@ -329,30 +720,71 @@ public class LoadscreenManager {
             // ALWAYS start position lock for maximum movement blocking
             startPositionLock();
 
+            // Settle the moment the awaited work completes, before the position lock can pull a covered
+            // teleport back to where the player was
+            if (awaiting != null) {
+                awaiting.whenComplete((value, error) -> {
+                    if (Bukkit.isPrimaryThread()) {
+                        onAwaitedDone();
+                    } else {
+                        Bukkit.getScheduler().runTask(Loadscreens.getInstance(), this::onAwaitedDone);
+                    }
+                });
+            }
+
             if (debug) {
                 Loadscreens.getInstance().getLogger().info("Started loadscreen '" + type + "' for " + player.getName());
             }
         }
 
         private void parsePlaceholders() {
-            parsedFrames = new java.util.ArrayList<>();
-
-            if (Loadscreens.getInstance().isPlaceholderAPIEnabled()) {
-                PlaceholderManager pm = Loadscreens.getInstance().getPlaceholderManager();
-                for (String frame : frames) {
-                    String parsed = pm.parsePlaceholders(player, frame);
-                    parsedFrames.add(parsed);
+            // Seed the opening frames prepared during timer_delay if they made it in time; anything else
+            // is resolved when it is first shown
+            if (preparedFrames == null || waitingForPack) return;
+            if (!preparedFrames.isDone() || preparedFrames.isCompletedExceptionally()) {
+                if (debug) {
+                    Loadscreens.getInstance().getLogger().info("Prepared frames for " + player.getName() + " not ready, resolving on demand");
                 }
-            } else {
-                // Use only built-in placeholders
-                PlaceholderManager pm = new PlaceholderManager();
-                for (String frame : frames) {
-                    String parsed = pm.parseBuiltinPlaceholders(player, frame);
-                    parsedFrames.add(org.bukkit.ChatColor.translateAlternateColorCodes('&', parsed));
+                return;
+            }
+
+            List<String> resolved = preparedFrames.join();
+            int tick = Bukkit.getCurrentTick();
+            for (int i = 0; i < resolved.size() && i < frameSource.size(); i++) {
+                PlaceholderTemplate template = frameSource.getIfLoaded(i);
+                if (template != null && !template.isConstant()) {
+                    liveFrames.put(i, new LiveFrame(template, resolved.get(i), tick));
                 }
             }
         }
 
+        // Text for a frame, re-resolving its placeholders every update_interval ticks. A frame whose chunk
+        // is still being read keeps the previous frame up rather than reading it on the tick.
+        private String frameText(int index) {
+            PlaceholderManager pm = Loadscreens.getInstance().getPlaceholderManager();
+            PlaceholderTemplate template = activeFrames.getIfLoaded(index);
+            if (template == null) {
+                return lastFrameText;
+            }
+            if (template.isConstant()) {
+                lastFrameText = pm.resolve(player, template);
+                return lastFrameText;
+            }
+
+            int tick = Bukkit.getCurrentTick();
+            LiveFrame frame = liveFrames.get(index);
+            if (frame == null || frame.getTemplate() != template) {
+                // Long streamed animations show most frames once, so don't let this grow with them
+                if (liveFrames.size() >= MAX_LIVE_FRAMES) liveFrames.clear();
+                frame = new LiveFrame(template, pm.resolve(player, template), tick);
+                liveFrames.put(index, frame);
+            } else if (frame.isDue(tick, updateInterval)) {
+                frame.refresh(pm, player, tick);
+            }
+            lastFrameText = frame.getText();
+            return lastFrameText;
+        }
+
         private void applyPlayerRestrictions() {
             // No-op: always enforced above
         }
@@ -375,6 +807,11 @@ public class LoadscreenManager {
                         return;
                     }
 
+                    // Work finished off the main thread settles next tick; don't undo what it did meanwhile
+                    if (awaiting != null && !awaitSettled && awaiting.isDone()) {
+                        return;
+                    }
+
                     Location currentLoc = player.getLocation();
 
                     // Use reasonable tolerance to prevent micro-corrections
@@ -413,52 +850,40 @@ public class LoadscreenManager {
             double distance = zOffset > 0 ? zOffset : 3.0;
             Location displayLoc = base.clone().add(direction.multiply(distance));
             displayLoc.add(xOffset, yOffset, 0);
+            int startOpacity = resumed ? resumeOpacity : fadeInDuration > 0 ? fadeInOpacityStart : opacity;
+            byte initialOpacity = (byte) Math.max(0, Math.min(255, startOpacity));
+            shownOpacity = initialOpacity & 0xFF;
 
-            display = player.getWorld().spawn(displayLoc, TextDisplay.class, e -> {
-                // Handle negative scale
-                float finalScale = (float) scale;
-                if (!allowNegativeScale && finalScale < 0) {
-                    finalScale = Math.abs(finalScale);
+            // With PacketEvents every layer lives only on this player's client and updates go out bundled
+            if (Loadscreens.getInstance().isPacketEventsEnabled()) {
+                scene = LoadscreenScene.virtual(player, displayLoc, useBackground, progressBar, subtitleFrame != null, group);
+                configureMainLayer(scene.getMain());
+                if (scene.getBackground() != null) {
+                    configureBackgroundLayer(scene.getBackground());
+                    scene.setBackgroundColor(backgroundColor);
                 }
-
-                // Create rotation quaternion
-                Quaternionf rotation = new Quaternionf();
-                if (rotationX != 0 || rotationY != 0 || rotationZ != 0) {
-                    rotation.rotateXYZ(
-                            (float) Math.toRadians(rotationX),
-                            (float) Math.toRadians(rotationY),
-                            (float) Math.toRadians(rotationZ)
-                    );
+                if (scene.getProgress() != null) {
+                    configureTextLayer(scene.getProgress(), progressBarYOffset, progressBarScale);
+                    updateProgress(0);
                 }
+                if (scene.getSubtitle() != null) {
+                    configureTextLayer(scene.getSubtitle(), subtitleYOffset, subtitleScale);
+                    scene.getSubtitle().text(Component.text(subtitleFrame.getText()));
+                }
+                scene.setOpacity(initialOpacity & 0xFF, opacity);
+                scene.spawn();
+                return;
+            }
 
-                e.setTransformation(new Transformation(
-                        new Vector3f(0, 0, 0),
-                        rotation,
-                        new Vector3f(finalScale, finalScale, finalScale),
-                        new Quaternionf()
-                ));
-
-                e.setBillboard(billboard);
-                e.setSeeThrough(!preventInteraction);
-                e.setShadowed(false);
-                e.setLineWidth(400);
-                e.setDefaultBackground(false);
-
-                // BRIGHTNESS FIX: Apply brightness setting to the display
-                e.setBrightness(new org.bukkit.entity.Display.Brightness(brightness, brightness));
-
-                // Set initial opacity for fade in
-                byte initialOpacity = (byte) (fadeInDuration > 0 ? fadeInOpacityStart : opacity);
+            // Otherwise the main text is a real entity, with the background colour applied to it directly
+            TextDisplay display = player.getWorld().spawn(displayLoc, TextDisplay.class, e -> {
+                configureMainLayer(new EntitySceneLayer(e));
                 e.setTextOpacity(initialOpacity);
-
-                // Set glow color if overridden
-                if (glowOverride) {
-                    e.setGlowColorOverride(org.bukkit.Color.fromARGB(glowA, glowR, glowG, glowB));
+                if (useBackground) {
+                    e.setBackgroundColor(backgroundColor);
                 }
-
-                // Set initial frame
-                updateDisplayText(e, parsedFrames.get(0), 0, 0);
             });
+            scene = LoadscreenScene.entity(player, display);
 
             // Make display only visible to this player
             for (Player other : player.getWorld().getPlayers()) {
@@ -468,32 +893,152 @@ public class LoadscreenManager {
             }
         }
 
+        private void configureMainLayer(SceneLayer layer) {
+            // Handle negative scale
+            float finalScale = (float) scale;
+            if (!allowNegativeScale && finalScale < 0) {
+                finalScale = Math.abs(finalScale);
+            }
+
+            // Create rotation quaternion
+            Quaternionf rotation = new Quaternionf();
+            if (rotationX != 0 || rotationY != 0 || rotationZ != 0) {
+                rotation.rotateXYZ(
+                        (float) Math.toRadians(rotationX),
+                        (float) Math.toRadians(rotationY),
+                        (float) Math.toRadians(rotationZ)
+                );
+            }
+
+            layer.setTransformation(new Transformation(
+                    new Vector3f(0, 0, 0),
+                    rotation,
+                    new Vector3f(finalScale, finalScale, finalScale),
+                    new Quaternionf()
+            ));
+
+            configureCommonLayer(layer);
+
+            // Set glow color if overridden
+            if (glowOverride) {
+                layer.setGlowColorOverride(org.bukkit.Color.fromARGB(glowA, glowR, glowG, glowB));
+            }
+
+            // Set initial frame
+            updateDisplayText(layer, frameText(0), 0, 0);
+        }
+
+        // Progress bar and subtitle sit below the main text at their own scale
+        private void configureTextLayer(SceneLayer layer, double layerYOffset, double layerScale) {
+            float s = (float) layerScale;
+            layer.setTransformation(new Transformation(
+                    new Vector3f(0, (float) layerYOffset, 0),
+                    new Quaternionf(),
+                    new Vector3f(s, s, s),
+                    new Quaternionf()
+            ));
+            configureCommonLayer(layer);
+        }
+
+        // A block of spaces whose background colour forms the panel, pushed slightly behind the text
+        private void configureBackgroundLayer(SceneLayer layer) {
+            float s = (float) backgroundScale;
+            layer.setTransformation(new Transformation(
+                    new Vector3f(0, (float) backgroundYOffset, -0.05f),
+                    new Quaternionf(),
+                    new Vector3f(s, s, s),
+                    new Quaternionf()
+            ));
+            configureCommonLayer(layer);
+
+            String row = " ".repeat(Math.max(1, backgroundWidth));
+            StringBuilder panel = new StringBuilder(row);
+            for (int i = 1; i < backgroundLines; i++) {
+                panel.append('\n').append(row);
+            }
+            layer.text(Component.text(panel.toString()));
+        }
+
+        private void configureCommonLayer(SceneLayer layer) {
+            layer.setBillboard(billboard);
+            layer.setSeeThrough(!preventInteraction);
+            layer.setShadowed(false);
+            layer.setLineWidth(400);
+            layer.setDefaultBackground(false);
+
+            // BRIGHTNESS FIX: Apply brightness setting to the display
+            layer.setBrightness(new org.bukkit.entity.Display.Brightness(brightness, brightness));
+        }
+
+        private void updateProgress(int totalTicks) {
+            int cells = endTick > 0 ? Math.min(progressBarLength, totalTicks * progressBarLength / endTick) : progressBarLength;
+            if (cells == progressCells) return;
+            progressCells = cells;
+
+            StringBuilder bar = new StringBuilder();
+            for (int i = 0; i < progressBarLength; i++) {
+                bar.append(i < cells ? progressBarFilled : progressBarEmpty);
+            }
+            scene.getProgress().text(Component.text(bar.toString()));
+        }
+
+        private void updateSubtitle() {
+            int tick = Bukkit.getCurrentTick();
+            if (subtitleFrame.isDue(tick, updateInterval)
+                    && subtitleFrame.refresh(Loadscreens.getInstance().getPlaceholderManager(), player, tick)) {
+                scene.getSubtitle().text(Component.text(subtitleFrame.getText()));
+            }
+        }
+
         private void startAnimation() {
             animationTask = new BukkitRunnable() {
-                int currentFrame = 0;
-                int totalTicks = 0;
-
                 @Override
                 public void run() {
-                    if (display == null || !display.isValid() || !player.isOnline()) {
+                    if (scene == null || !scene.isValid() || !player.isOnline()) {
                         // Use LoadscreenManager.stopLoadscreen to properly clean up
                         LoadscreenManager.stopLoadscreen(player);
                         return;
                     }
 
-                    // Check if animation is complete
-                    if (totalTicks >= duration) {
-                        // Use LoadscreenManager.stopLoadscreen to properly clean up
-                        LoadscreenManager.stopLoadscreen(player);
-                        return;
+                    if (waitingForPack) {
+                        // Give up if the pack never reports back; the glyph frames would only show as boxes
+                        packWaitTicks += frameInterval;
+                        if (packWaitTicks >= resourcePackTimeout) {
+                            if (debug) {
+                                Loadscreens.getInstance().getLogger().info("Resource pack for " + player.getName() + " did not load in time, ending loadscreen");
+                            }
+                            LoadscreenManager.stopLoadscreen(player, SessionResult.Status.ABORTED, "resource pack timed out");
+                            return;
+                        }
+                    } else {
+                        // Check if animation is complete
+                        if (waitsForReady()) {
+                            updateEndTick(animationTicks);
+                        }
+                        if (animationTicks >= endTick && confirmEnd()) {
+                            // Use LoadscreenManager.stopLoadscreen to properly clean up
+                            LoadscreenManager.stopLoadscreen(player, SessionResult.Status.ENDED, null);
+                            return;
+                        }
                     }
 
                     // Update frame
-                    String frameText = parsedFrames.get(currentFrame % parsedFrames.size());
-                    updateDisplayText(display, frameText, currentFrame, totalTicks);
+                    String frameText = frameText(animationFrame % activeFrames.size());
+                    updateDisplayText(scene.getMain(), frameText, animationFrame, animationTicks);
+                    if (scene.getProgress() != null && !waitingForPack) {
+                        updateProgress(animationTicks);
+                    }
+                    if (scene.getSubtitle() != null) {
+                        updateSubtitle();
+                    }
+
+                    // Apply fade effects; the wait screen only fades in
+                    if (!waitingForPack || animationTicks < fadeInDuration) {
+                        applyFadeEffects(animationTicks);
+                    }
 
-                    // Apply fade effects
-                    applyFadeEffects(totalTicks);
+                    // Everything that changed this step goes out together
+                    scene.flush();
 
                     // Play sound if enabled
                     if (playSound && soundPerFrame) {
@@ -501,8 +1046,8 @@ public class LoadscreenManager {
                     }
 
                     // Move to next frame
-                    currentFrame++;
-                    totalTicks += frameInterval;
+                    animationFrame++;
+                    animationTicks += frameInterval;
                 }
             };
 
@@ -515,8 +1060,7 @@ public class LoadscreenManager {
         }
 
         // Ensure these methods exist in LoadscreenSession
-        private void updateDisplayText(TextDisplay display, String frameChar, int frameIndex, int totalTicks) {
-            Component textComponent;
+        private void updateDisplayText(SceneLayer display, String frameChar, int frameIndex, int totalTicks) {
             if (typewriterEffect) {
                 int revealedChars = Math.min(frameChar.length(), (totalTicks / frameInterval) * typewriterSpeed);
                 if (revealedChars > 0) {
@@ -525,44 +1069,150 @@ public class LoadscreenManager {
                     frameChar = "";
                 }
             }
-            if (!font.equals("minecraft:default")) {
-                textComponent = Component.text(frameChar).font(Key.key(font));
-            } else {
-                textComponent = Component.text(frameChar);
-            }
+            int color = -1;
             if (rainbowText) {
                 float hue = (float) ((totalTicks * rainbowSpeed) % 1.0);
-                int rgb = java.awt.Color.HSBtoRGB(hue, 1.0f, 1.0f);
-                textComponent = textComponent.color(TextColor.color(rgb));
+                color = java.awt.Color.HSBtoRGB(hue, 1.0f, 1.0f) & 0xFFFFFF;
+            }
+
+            // Only send the text if it differs from what the client already has
+            if (!frameChar.equals(lastText) || color != lastColor) {
+                Component textComponent;
+                // The wait screen is shown before the pack is there, so its frames never use the pack's font
+                if (!font.equals("minecraft:default") && activeFrames != packFrames) {
+                    textComponent = Component.text(frameChar).font(Key.key(font));
+                } else {
+                    textComponent = Component.text(frameChar);
+                }
+                if (rainbowText) {
+                    textComponent = textComponent.color(TextColor.color(color));
+                }
+                display.text(textComponent);
+                lastText = frameChar;
+                lastColor = color;
             }
-            display.text(textComponent);
             applyVisualEffects(display, frameIndex, totalTicks);
         }
 
+        // Switches from the wait screen to the real animation in place, without starting a new session
+        void onResourcePackStatus(PlayerResourcePackStatusEvent.Status status) {
+            if (!waitingForPack) return;
+
+            switch (status) {
+                case SUCCESSFULLY_LOADED:
+                    waitingForPack = false;
+                    activeFrames = frameSource;
+                    liveFrames.clear();
+                    lastText = null; // Resend even if the first frame matches, now in the pack's font
+                    animationFrame = 0;
+                    animationTicks = 0;
+                    progressCells = -1;
+                    if (debug) {
+                        Loadscreens.getInstance().getLogger().info("Resource pack loaded for " + player.getName() + " after " + packWaitTicks + " ticks, starting '" + type + "' animation");
+                    }
+                    break;
+                case DECLINED:
+                case FAILED_DOWNLOAD:
+                case INVALID_URL:
+                case FAILED_RELOAD:
+                case DISCARDED:
+                    if (debug) {
+                        Loadscreens.getInstance().getLogger().info("Resource pack for " + player.getName() + " failed (" + status + "), ending loadscreen");
+                    }
+                    LoadscreenManager.stopLoadscreen(player, SessionResult.Status.ABORTED, "resource pack " + status.name().toLowerCase());
+                    break;
+                default:
+                    // Accepted or downloaded, keep waiting
+                    break;
+            }
+        }
+
+        // Awaited work may have moved the player, so lock and restore to where it left them
+        private void onAwaitedDone() {
+            if (awaitSettled || activeSessions.get(player.getUniqueId()) != this) return;
+            if (awaiting.isCompletedExceptionally()) {
+                LoadscreenManager.stopLoadscreen(player, SessionResult.Status.ABORTED, "awaited work failed");
+                return;
+            }
+            settleAwaited();
+        }
+
+        private void settleAwaited() {
+            awaitSettled = true;
+            Location current = player.getLocation();
+            originalLocation = current.clone();
+            if (restorePlan != null) {
+                restorePlan.relocate(current);
+            }
+        }
+
+        // Lets listeners hold a finished screen; a held screen stays at full opacity
+        private boolean confirmEnd() {
+            LoadscreenEndEvent endEvent = new LoadscreenEndEvent(player, type, SessionResult.Status.ENDED, Bukkit.getCurrentTick() - startTick);
+            Bukkit.getPluginManager().callEvent(endEvent);
+            held = endEvent.isCancelled();
+            return !held;
+        }
+
+        // Clients that are ready in time end at min(duration, ready + grace); slow clients are held until
+        // ready + grace instead of having the world pop in. Never before the floor or past the ceiling.
+        // Ready means the client has the terrain, any preloaded chunks are loaded on the server and any
+        // awaited work is done.
+        private void updateEndTick(int totalTicks) {
+            if (readyTick < 0
+                    && (readiness == null || readiness.isReady(readyQuietTicks * 50_000_000L))
+                    && (chunkPreload == null || chunkPreload.isDone())
+                    && (awaiting == null || awaiting.isDone())) {
+                readyTick = totalTicks;
+                if (debug) {
+                    Loadscreens.getInstance().getLogger().info(player.getName() + " finished loading terrain after " + totalTicks + " ticks" +
+                            (chunkPreload != null ? " (" + chunkPreload.getTotal() + " chunks preloaded)" : ""));
+                }
+            }
+
+            int target = readyTick >= 0 ? readyTick + readyGrace : Math.max(duration, totalTicks + frameInterval);
+            endTick = Math.min(readyCeiling, Math.max(readyFloor, target));
+        }
+
+        private boolean waitsForReady() {
+            return readiness != null || chunkPreload != null || awaiting != null;
+        }
+
         private void applyFadeEffects(int totalTicks) {
-            if (!fadeSmooth || display == null) return;
+            if (!fadeSmooth || scene == null) return;
+
+            // While waiting for the client the end tick only ever sits a frame ahead, so the fade-out is
+            // timed against the ceiling until the client is ready, and after that never starts before
+            // the ready tick, so the screen stays fully up for the whole hold
+            int fadeOutEnd = endTick;
+            int fadeOutStart = endTick - fadeOutDuration;
+            if (waitsForReady()) {
+                if (readyTick < 0) {
+                    fadeOutEnd = readyCeiling;
+                    fadeOutStart = readyCeiling - fadeOutDuration;
+                } else {
+                    fadeOutStart = Math.max(fadeOutStart, readyTick);
+                }
+            }
+
             int currentOpacity = opacity;
             if (totalTicks < fadeInDuration) {
-                if (fadeSmooth) {
-                    double fadeProgress = (double) totalTicks / fadeInDuration;
-                    currentOpacity = (int) (fadeInOpacityStart + (opacity - fadeInOpacityStart) * fadeProgress);
-                }
-            } else if (totalTicks >= duration - fadeOutDuration) {
-                if (fadeSmooth) {
-                    int fadeOutStart = duration - fadeOutDuration;
-                    double fadeProgress = (double) (totalTicks - fadeOutStart) / fadeOutDuration;
-                    currentOpacity = (int) (opacity - (opacity - fadeOutOpacityEnd) * fadeProgress);
-                }
+                double fadeProgress = (double) totalTicks / fadeInDuration;
+                currentOpacity = (int) (fadeInOpacityStart + (opacity - fadeInOpacityStart) * fadeProgress);
+            } else if (!held && totalTicks >= fadeOutStart) {
+                double fadeProgress = Math.min(1.0, (double) (totalTicks - fadeOutStart) / Math.max(1, fadeOutEnd - fadeOutStart));
+                currentOpacity = (int) (opacity - (opacity - fadeOutOpacityEnd) * fadeProgress);
             }
             currentOpacity = Math.max(0, Math.min(255, currentOpacity));
-            display.setTextOpacity((byte) currentOpacity);
+            scene.setOpacity(currentOpacity, opacity);
+            shownOpacity = currentOpacity;
             if (debug && totalTicks % 20 == 0) {
                 Loadscreens.getInstance().getLogger().info("Fade opacity for " + player.getName() + ": " + currentOpacity);
             }
         }
 
         // Add missing applyVisualEffects method
-        private void applyVisualEffects(TextDisplay display, int frameIndex, int totalTicks) {
+        private void applyVisualEffects(SceneLayer display, int frameIndex, int totalTicks) {
             if (!pulseEffect && !wobbleEffect) return;
 
             Transformation current = display.getTransformation();
@@ -590,7 +1240,12 @@ public class LoadscreenManager {
             ));
         }
 
-        public void stop() {
+        public void stop(SessionResult.Status status, String reason) {
+            publish(end(status, reason));
+        }
+
+        // Tears the session down and logs it; the outcome is announced separately by publish()
+        SessionResult end(SessionResult.Status status, String reason) {
             // Cancel animation task
             if (animationTask != null) {
                 animationTask.cancel();
@@ -603,126 +1258,49 @@ public class LoadscreenManager {
                 positionLockTask = null;
             }
 
-            // Remove display
-            if (display != null) {
-                display.remove();
-                display = null;
+            if (readiness != null) {
+                Loadscreens.getInstance().getPacketManager().untrackReadiness(player);
+                readiness = null;
             }
 
-            // Always restore player state and log
-            restorePlayerState();
-            if (debug) {
-                Loadscreens.getInstance().getLogger().info("Stopped loadscreen '" + type + "' for " + player.getName());
+            if (chunkPreload != null) {
+                chunkPreload.release();
+                chunkPreload = null;
             }
-        }
-
-        private void restorePlayerState() {
-            // FIRST: Restore player position to prevent ground-clipping
-            if (originalLocation != null && player.isOnline()) {
-                // Find a safe location near the original position
-                Location safeLocation = findSafeLocation(originalLocation);
-
-                // Restore original rotation
-                safeLocation.setYaw(originalYaw);
-                safeLocation.setPitch(originalPitch);
-
-                // Teleport player to safe location
-                player.teleport(safeLocation);
 
-                if (debug) {
-                    Loadscreens.getInstance().getLogger().info("Restored " + player.getName() +
-                            " to safe location: " + safeLocation.getBlockX() + ", " + safeLocation.getBlockY() +
-                            ", " + safeLocation.getBlockZ());
-                }
+            // Remove display
+            if (scene != null) {
+                scene.remove();
+                scene = null;
             }
 
-            // Remove ALL potion effects that might have been applied
-            player.removePotionEffect(PotionEffectType.SLOWNESS);
-            player.removePotionEffect(PotionEffectType.JUMP_BOOST);
-            player.removePotionEffect(PotionEffectType.INVISIBILITY);
-            player.removePotionEffect(PotionEffectType.BLINDNESS);
-
-            // Restore original player state instead of hardcoded values
-            if (originalGameMode != null) {
-                player.setGameMode(originalGameMode);
+            // Hand the restore to the queue so mass endings are spread over several ticks
+            if (restorePlan != null) {
+                RestoreQueue.enqueue(restorePlan);
+                restorePlan = null;
             }
-            player.setWalkSpeed(originalWalkSpeed);
-            player.setFlySpeed(originalFlySpeed);
-            player.setAllowFlight(originalAllowFlight);
-
             if (debug) {
-                Loadscreens.getInstance().getLogger().info("Restored original state for " + player.getName() +
-                    " - GameMode: " + originalGameMode + ", WalkSpeed: " + originalWalkSpeed +
-                    ", FlySpeed: " + originalFlySpeed + ", AllowFlight: " + originalAllowFlight);
+                Loadscreens.getInstance().getLogger().info("Stopped loadscreen '" + type + "' for " + player.getName() +
+                        " (" + status + (reason != null ? ", " + reason : "") + ")");
             }
 
-            // Unblock packets
-            if (Loadscreens.getInstance().isPacketEventsEnabled()) {
-                Loadscreens.getInstance().getPacketManager().unblockPackets(player);
-            }
+            int ticksShown = Bukkit.getCurrentTick() - startTick;
 
-            // Clear velocity AFTER teleporting
-            player.setVelocity(new org.bukkit.util.Vector(0, 0, 0));
-        }
-
-        private Location findSafeLocation(Location location) {
-            // First, try the original location
-            if (isSafeLocation(location)) {
-                return location;
+            // Seen once it ran to the end or was up long enough, not merely started
+            if (showOnce && (status == SessionResult.Status.ENDED || ticksShown >= showOnceMinTicks)) {
+                SeenStores.markSeen(type, contentVersion, player.getUniqueId());
             }
 
-            // If not safe, try to find a safe location nearby
-            Location safeLoc = location.clone();
-
-            // Try moving up to find solid ground
-            for (int y = 0; y < 10; y++) {
-                safeLoc.setY(location.getY() + y);
-                if (isSafeLocation(safeLoc)) {
-                    return safeLoc;
-                }
-            }
-
-            // Try moving down to find solid ground
-            for (int y = 1; y < 10; y++) {
-                safeLoc.setY(location.getY() - y);
-                if (isSafeLocation(safeLoc)) {
-                    return safeLoc;
-                }
-            }
-
-            // If still not found, use world spawn as fallback
-            Location worldSpawn = location.getWorld().getSpawnLocation();
-            if (isSafeLocation(worldSpawn)) {
-                return worldSpawn;
-            }
-
-            // Last resort: return original location
-            return location;
+            SessionLog.record(type, status, reason, requestedDelay, queueDelayMillis, duration, ticksShown, pingAtStart, tickTimeAtStart);
+            return new SessionResult(player, type, status, reason, ticksShown);
         }
 
-        private boolean isSafeLocation(Location location) {
-            if (location.getWorld() == null) {
-                return false;
+        void publish(SessionResult outcome) {
+            // Natural ends already fired their event before stopping
+            if (outcome.getStatus() != SessionResult.Status.ENDED) {
+                Bukkit.getPluginManager().callEvent(new LoadscreenEndEvent(player, type, outcome.getStatus(), outcome.getTicksShown()));
             }
-
-            // Check if the block below is solid
-            Location below = location.clone().subtract(0, 1, 0);
-            if (below.getBlock().getType().isAir()) {
-                return false;
-            }
-
-            // Check if the current block and the block above are not solid (so player can stand)
-            if (!location.getBlock().getType().isAir() || !location.clone().add(0, 1, 0).getBlock().getType().isAir()) {
-                return false;
-            }
-
-            // Check for dangerous blocks (lava, fire, etc.)
-            String blockType = below.getBlock().getType().toString();
-            if (blockType.contains("LAVA") || blockType.contains("FIRE") || blockType.contains("MAGMA")) {
-                return false;
-            }
-
-            return true;
+            result.complete(outcome);
         }
     }
 }
@@ -0,0 +1,160 @@
+package org.anonventions.loadscreens.util;
+
+import com.github.retrooper.packetevents.PacketEvents;
+import com.github.retrooper.packetevents.wrapper.PacketWrapper;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerDestroyEntities;
+import com.github.retrooper.packetevents.wrapper.play.server.WrapperPlayServerSpawnEntity;
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.anonventions.loadscreens.depends.PacketManager;
+import org.anonventions.loadscreens.depends.VirtualTextDisplay;
+import org.bukkit.Color;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.TextDisplay;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// The layers of one viewer's loadscreen: background panel, main text, progress bar and subtitle. With
+// PacketEvents every layer is a client-side text display and a tick's changes go out in one bundle with
+// a single flush, so the client applies them in the same frame. Without it the scene is only the main
+// text, as a real entity.
+public class LoadscreenScene {
+    private final Player viewer;
+    private final SceneLayer main;
+    private final SceneLayer background, progress, subtitle; // null when not in this scene
+    private final List<VirtualTextDisplay> virtualLayers;
+    private final TextDisplay entity;
+    private final FanoutGroup group;            // null unless started as part of a group
+    private final List<PacketWrapper<?>> pending = new ArrayList<>();
+
+    private Color backgroundColor;
+    private boolean removed;
+
+    private LoadscreenScene(Player viewer, SceneLayer main, SceneLayer background, SceneLayer progress, SceneLayer subtitle,
+                            List<VirtualTextDisplay> virtualLayers, TextDisplay entity, FanoutGroup group) {
+        this.viewer = viewer;
+        this.main = main;
+        this.background = background;
+        this.progress = progress;
+        this.subtitle = subtitle;
+        this.virtualLayers = virtualLayers;
+        this.entity = entity;
+        this.group = group;
+        if (group != null) {
+            group.join();
+        }
+    }
+
+    // Layers reuse the entity IDs reserved for the viewer alongside the camera anchor, or the group's
+    // shared IDs when the scene is part of one
+    public static LoadscreenScene virtual(Player viewer, Location location, boolean withBackground, boolean withProgress, boolean withSubtitle,
+                                          FanoutGroup group) {
+        int[] ids = group != null ? group.getSceneEntityIds() : Loadscreens.getInstance().getPacketManager().getSceneEntityIds(viewer);
+        List<VirtualTextDisplay> layers = new ArrayList<>(PacketManager.SCENE_LAYER_COUNT);
+
+        // Spawned back to front
+        VirtualTextDisplay background = withBackground ? new VirtualTextDisplay(ids[0], location) : null;
+        VirtualTextDisplay main = new VirtualTextDisplay(ids[1], location);
+        VirtualTextDisplay progress = withProgress ? new VirtualTextDisplay(ids[2], location) : null;
+        VirtualTextDisplay subtitle = withSubtitle ? new VirtualTextDisplay(ids[3], location) : null;
+        for (VirtualTextDisplay layer : new VirtualTextDisplay[]{background, main, progress, subtitle}) {
+            if (layer != null) layers.add(layer);
+        }
+
+        return new LoadscreenScene(viewer, main, background, progress, subtitle, layers, null, group);
+    }
+
+    public static LoadscreenScene entity(Player viewer, TextDisplay display) {
+        return new LoadscreenScene(viewer, new EntitySceneLayer(display), null, null, null, List.of(), display, null);
+    }
+
+    public SceneLayer getMain() {
+        return main;
+    }
+
+    public SceneLayer getBackground() {
+        return background;
+    }
+
+    public SceneLayer getProgress() {
+        return progress;
+    }
+
+    public SceneLayer getSubtitle() {
+        return subtitle;
+    }
+
+    public void setBackgroundColor(Color color) {
+        this.backgroundColor = color;
+        if (background != null) {
+            background.setBackgroundColor(color);
+        }
+    }
+
+    // Fades every layer together; the panel's alpha scales with the text opacity
+    public void setOpacity(int opacity, int maxOpacity) {
+        main.setTextOpacity((byte) opacity);
+        if (progress != null) progress.setTextOpacity((byte) opacity);
+        if (subtitle != null) subtitle.setTextOpacity((byte) opacity);
+        if (background != null && backgroundColor != null && maxOpacity > 0) {
+            int alpha = backgroundColor.getAlpha() * Math.min(opacity, maxOpacity) / maxOpacity;
+            background.setBackgroundColor(backgroundColor.setAlpha(alpha));
+        }
+    }
+
+    public boolean isValid() {
+        return entity != null ? entity.isValid() : !removed;
+    }
+
+    public void spawn() {
+        if (virtualLayers.isEmpty()) return;
+
+        for (VirtualTextDisplay layer : virtualLayers) {
+            layer.spawn(pending);
+        }
+        send();
+    }
+
+    // Sends everything that changed since the last flush as one bundle
+    public void flush() {
+        if (virtualLayers.isEmpty() || removed) return;
+
+        for (VirtualTextDisplay layer : virtualLayers) {
+            layer.flush(pending);
+        }
+        send();
+    }
+
+    private void send() {
+        if (pending.isEmpty()) return;
+
+        // Spawns go out now; the group sends the rest at the end of the tick
+        if (group != null && !(pending.get(0) instanceof WrapperPlayServerSpawnEntity)) {
+            group.submit(viewer, pending);
+        } else {
+            Loadscreens.getInstance().getPacketManager().sendBundle(viewer, pending);
+        }
+        pending.clear();
+    }
+
+    public void remove() {
+        if (removed) return;
+        removed = true;
+        if (group != null) {
+            group.leave(viewer);
+        }
+        if (entity != null) {
+            entity.remove();
+            return;
+        }
+
+        if (viewer.isOnline()) {
+            int[] ids = new int[virtualLayers.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = virtualLayers.get(i).getEntityId();
+            }
+            PacketEvents.getAPI().getPlayerManager().sendPacket(viewer, new WrapperPlayServerDestroyEntities(ids));
+        }
+    }
+}
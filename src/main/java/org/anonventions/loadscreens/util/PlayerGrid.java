@@ -0,0 +1,107 @@
+package org.anonventions.loadscreens.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Online players bucketed into 32-block columns per world, so "who is near here" looks at a few cells
+// instead of every player in the world. Kept up to date from join, quit, move, teleport and respawn
+// events: a player only changes cell when they cross a 32-block line, so most updates are a single
+// lookup. Main thread only.
+public class PlayerGrid {
+    private static final int CELL_SHIFT = 5;
+
+    private static final Map<UUID, Map<Long, List<Player>>> cells = new HashMap<>();
+    private static final Map<UUID, Cell> placed = new HashMap<>();
+
+    // Places everyone already online, for when the plugin is enabled on a running server
+    public static void seed() {
+        cells.clear();
+        placed.clear();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            update(player, player.getLocation());
+        }
+    }
+
+    // Moves the player to the cell for this location, if it's a different one
+    public static void update(Player player, Location location) {
+        UUID world = location.getWorld().getUID();
+        long key = key(location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT);
+
+        Cell current = placed.get(player.getUniqueId());
+        if (current != null) {
+            if (current.key == key && current.world.equals(world)) return;
+            unlink(player, current);
+        }
+
+        cells.computeIfAbsent(world, id -> new HashMap<>()).computeIfAbsent(key, k -> new ArrayList<>()).add(player);
+        placed.put(player.getUniqueId(), new Cell(world, key));
+    }
+
+    public static void remove(Player player) {
+        Cell current = placed.remove(player.getUniqueId());
+        if (current != null) {
+            unlink(player, current);
+        }
+    }
+
+    private static void unlink(Player player, Cell cell) {
+        Map<Long, List<Player>> world = cells.get(cell.world);
+        if (world == null) return;
+        List<Player> players = world.get(cell.key);
+        if (players == null) return;
+
+        players.remove(player);
+        if (players.isEmpty()) {
+            world.remove(cell.key);
+            if (world.isEmpty()) cells.remove(cell.world);
+        }
+    }
+
+    // Players within range of the centre, compared on squared distance
+    public static List<Player> nearby(Location center, double range) {
+        List<Player> found = new ArrayList<>();
+        Map<Long, List<Player>> world = cells.get(center.getWorld().getUID());
+        if (world == null) return found;
+
+        double rangeSquared = range * range;
+        int minX = (int) Math.floor(center.getX() - range) >> CELL_SHIFT;
+        int maxX = (int) Math.floor(center.getX() + range) >> CELL_SHIFT;
+        int minZ = (int) Math.floor(center.getZ() - range) >> CELL_SHIFT;
+        int maxZ = (int) Math.floor(center.getZ() + range) >> CELL_SHIFT;
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                List<Player> cell = world.get(key(x, z));
+                if (cell == null) continue;
+                for (Player player : cell) {
+                    Location location = player.getLocation();
+                    if (location.getWorld() == center.getWorld() && location.distanceSquared(center) <= rangeSquared) {
+                        found.add(player);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    private static class Cell {
+        final UUID world;
+        final long key;
+
+        Cell(UUID world, long key) {
+            this.world = world;
+            this.key = key;
+        }
+    }
+}
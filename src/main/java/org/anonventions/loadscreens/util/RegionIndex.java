@@ -0,0 +1,167 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Cuboid regions from the regions: section that show a loadscreen when a player walks in. Each region is
+// listed under every chunk it overlaps, keyed by world and chunk key, so a moving player only checks the
+// few regions in their own chunk. Players' current regions are remembered, so a screen shows on entry
+// and not again until they have left. Immutable once loaded, so a reload builds a new index and swaps it.
+public class RegionIndex {
+    private static final Region[] NONE = new Region[0];
+
+    private static volatile Map<String, Map<Long, Region[]>> byWorld = Map.of();
+    private static final Map<UUID, Region[]> inside = new HashMap<>();
+
+    public static void loadConfigured() {
+        ConfigurationSection section = Loadscreens.getInstance().getConfig().getConfigurationSection("regions");
+        if (section == null || !section.getBoolean("enabled", false)) {
+            byWorld = Map.of();
+            inside.clear();
+            return;
+        }
+
+        Map<String, Map<Long, List<Region>>> building = new HashMap<>();
+        int count = 0;
+        ConfigurationSection list = section.getConfigurationSection("list");
+        if (list != null) {
+            for (String name : list.getKeys(false)) {
+                Region region = parse(name, list.getConfigurationSection(name));
+                if (region == null) {
+                    Loadscreens.getInstance().getLogger().warning("Skipping region '" + name + "': needs world, min and max");
+                    continue;
+                }
+
+                Map<Long, List<Region>> chunks = building.computeIfAbsent(region.world, world -> new HashMap<>());
+                for (int cx = region.minX >> 4; cx <= region.maxX >> 4; cx++) {
+                    for (int cz = region.minZ >> 4; cz <= region.maxZ >> 4; cz++) {
+                        chunks.computeIfAbsent(Chunk.getChunkKey(cx, cz), key -> new ArrayList<>()).add(region);
+                    }
+                }
+                count++;
+            }
+        }
+
+        Map<String, Map<Long, Region[]>> index = new HashMap<>();
+        for (Map.Entry<String, Map<Long, List<Region>>> world : building.entrySet()) {
+            Map<Long, Region[]> chunks = new HashMap<>();
+            for (Map.Entry<Long, List<Region>> chunk : world.getValue().entrySet()) {
+                chunks.put(chunk.getKey(), chunk.getValue().toArray(NONE));
+            }
+            index.put(world.getKey(), chunks);
+        }
+        byWorld = index;
+
+        if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+            Loadscreens.getInstance().getLogger().info("Loaded " + count + " loadscreen regions");
+        }
+    }
+
+    private static Region parse(String name, ConfigurationSection section) {
+        if (section == null) return null;
+        String world = section.getString("world");
+        List<Integer> min = section.getIntegerList("min");
+        List<Integer> max = section.getIntegerList("max");
+        if (world == null || min.size() != 3 || max.size() != 3) return null;
+
+        return new Region(name, world, section.getString("type", "custom"),
+                Math.min(min.get(0), max.get(0)), Math.min(min.get(1), max.get(1)), Math.min(min.get(2), max.get(2)),
+                Math.max(min.get(0), max.get(0)), Math.max(min.get(1), max.get(1)), Math.max(min.get(2), max.get(2)));
+    }
+
+    public static boolean isEmpty() {
+        return byWorld.isEmpty();
+    }
+
+    // Records where the player is now and returns the regions they just entered. Call only when they
+    // have moved to another block.
+    public static List<Region> update(Player player, Location location) {
+        Region[] now = regionsAt(location);
+        Region[] before = inside.getOrDefault(player.getUniqueId(), NONE);
+        if (now.length == 0) {
+            if (before.length > 0) inside.remove(player.getUniqueId());
+            return List.of();
+        }
+        inside.put(player.getUniqueId(), now);
+
+        List<Region> entered = null;
+        for (Region region : now) {
+            if (!contains(before, region)) {
+                if (entered == null) entered = new ArrayList<>(1);
+                entered.add(region);
+            }
+        }
+        return entered != null ? entered : List.of();
+    }
+
+    public static void forget(UUID player) {
+        inside.remove(player);
+    }
+
+    private static Region[] regionsAt(Location location) {
+        Map<Long, Region[]> chunks = byWorld.get(location.getWorld().getName());
+        if (chunks == null) return NONE;
+
+        int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+        Region[] candidates = chunks.get(Chunk.getChunkKey(x >> 4, z >> 4));
+        if (candidates == null) return NONE;
+
+        int matched = 0;
+        Region[] result = null;
+        for (Region region : candidates) {
+            if (region.contains(x, y, z)) {
+                if (result == null) result = new Region[candidates.length];
+                result[matched++] = region;
+            }
+        }
+        if (result == null) return NONE;
+        return matched == result.length ? result : Arrays.copyOf(result, matched);
+    }
+
+    private static boolean contains(Region[] regions, Region region) {
+        for (Region candidate : regions) {
+            // By name, so a reload doesn't count everyone already inside as entering again
+            if (candidate.name.equals(region.name)) return true;
+        }
+        return false;
+    }
+
+    public static class Region {
+        private final String name, world, type;
+        private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+        Region(String name, String world, String type, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            this.name = name;
+            this.world = world;
+            this.type = type;
+            this.minX = minX;
+            this.minY = minY;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxY = maxY;
+            this.maxZ = maxZ;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+        }
+    }
+}
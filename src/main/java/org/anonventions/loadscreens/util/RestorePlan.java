@@ -0,0 +1,184 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.util.Vector;
+
+// Everything needed to put a player back the way they were before a loadscreen, captured once at
+// session start. Replaces the separate state copies LoadscreenSession and PacketManager used to keep,
+// so each step (teleport, gamemode, speeds) runs exactly once.
+public class RestorePlan {
+    private final Player player;
+    private Location location;
+    private final GameMode gameMode;
+    private final float walkSpeed, flySpeed;
+    private final boolean allowFlight, wasFlying;
+
+    private int resyncDueTick = -1;
+
+    private RestorePlan(Player player) {
+        this.player = player;
+        this.location = player.getLocation().clone();
+        this.gameMode = player.getGameMode();
+        this.walkSpeed = player.getWalkSpeed();
+        this.flySpeed = player.getFlySpeed();
+        this.allowFlight = player.getAllowFlight();
+        this.wasFlying = player.isFlying();
+    }
+
+    public static RestorePlan capture(Player player) {
+        RestorePlan plan = new RestorePlan(player);
+
+        if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+            Loadscreens.getInstance().getLogger().info("Stored original state for " + player.getName() +
+                    " - GameMode: " + plan.gameMode + ", WalkSpeed: " + plan.walkSpeed +
+                    ", FlySpeed: " + plan.flySpeed + ", AllowFlight: " + plan.allowFlight);
+        }
+        return plan;
+    }
+
+    // Restores to a new spot, e.g. where a teleport the loadscreen was covering put the player
+    void relocate(Location location) {
+        this.location = location.clone();
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    int getResyncDueTick() {
+        return resyncDueTick;
+    }
+
+    void setResyncDueTick(int resyncDueTick) {
+        this.resyncDueTick = resyncDueTick;
+    }
+
+    // Runs every restoration step once. Returns true if the client needs an inventory resync a couple
+    // of ticks later.
+    boolean apply() {
+        boolean debug = Loadscreens.getInstance().getConfig().getBoolean("global.debug", false);
+
+        // Release the packet-level lockdown first so the client's teleport confirmation gets through
+        boolean packetsWereBlocked = false;
+        if (Loadscreens.getInstance().isPacketEventsEnabled()) {
+            packetsWereBlocked = Loadscreens.getInstance().getPacketManager().isPlayerBlocked(player);
+            Loadscreens.getInstance().getPacketManager().unblockPackets(player);
+        }
+
+        // Restore gamemode FIRST, then speeds and flight
+        boolean gameModeChanged = player.getGameMode() != gameMode;
+        if (gameModeChanged) {
+            player.setGameMode(gameMode);
+        }
+        player.setWalkSpeed(walkSpeed);
+        player.setFlySpeed(flySpeed);
+        player.setAllowFlight(allowFlight);
+        if (wasFlying && allowFlight) {
+            player.setFlying(true);
+        }
+
+        // Restore player position to prevent ground-clipping
+        if (player.isOnline() && !player.isDead()) {
+            Location safeLocation = findSafeLocation(location.clone());
+            safeLocation.setYaw(location.getYaw());
+            safeLocation.setPitch(location.getPitch());
+            player.teleport(safeLocation);
+
+            if (debug) {
+                Loadscreens.getInstance().getLogger().info("Restored " + player.getName() +
+                        " to safe location: " + safeLocation.getBlockX() + ", " + safeLocation.getBlockY() +
+                        ", " + safeLocation.getBlockZ());
+            }
+        }
+
+        // Clear velocity AFTER teleporting
+        player.setVelocity(new Vector(0, 0, 0));
+
+        if (debug) {
+            Loadscreens.getInstance().getLogger().info("Restored original state for " + player.getName() +
+                    " - GameMode: " + gameMode + ", WalkSpeed: " + walkSpeed +
+                    ", FlySpeed: " + flySpeed + ", AllowFlight: " + allowFlight);
+        }
+
+        // Slot updates were dropped while blocked, and the client was shown spectator mode
+        return gameModeChanged || packetsWereBlocked;
+    }
+
+    // Fixes the invisible items issue when transitioning out of (client-side) spectator mode
+    void resyncInventory() {
+        if (!player.isOnline()) return;
+
+        player.updateInventory();
+
+        // Force the client to see the held item
+        org.bukkit.inventory.ItemStack heldItem = player.getInventory().getItemInMainHand();
+        player.getInventory().setItemInMainHand(heldItem);
+
+        // Force armor update
+        org.bukkit.inventory.ItemStack[] armor = player.getInventory().getArmorContents();
+        player.getInventory().setArmorContents(armor);
+    }
+
+    private Location findSafeLocation(Location location) {
+        // First, try the original location
+        if (isSafeLocation(location)) {
+            return location;
+        }
+
+        // If not safe, try to find a safe location nearby
+        Location safeLoc = location.clone();
+
+        // Try moving up to find solid ground
+        for (int y = 0; y < 10; y++) {
+            safeLoc.setY(location.getY() + y);
+            if (isSafeLocation(safeLoc)) {
+                return safeLoc;
+            }
+        }
+
+        // Try moving down to find solid ground
+        for (int y = 1; y < 10; y++) {
+            safeLoc.setY(location.getY() - y);
+            if (isSafeLocation(safeLoc)) {
+                return safeLoc;
+            }
+        }
+
+        // If still not found, use world spawn as fallback
+        Location worldSpawn = location.getWorld().getSpawnLocation();
+        if (isSafeLocation(worldSpawn)) {
+            return worldSpawn;
+        }
+
+        // Last resort: return original location
+        return location;
+    }
+
+    private boolean isSafeLocation(Location location) {
+        if (location.getWorld() == null) {
+            return false;
+        }
+
+        // Check if the block below is solid
+        Location below = location.clone().subtract(0, 1, 0);
+        if (below.getBlock().getType().isAir()) {
+            return false;
+        }
+
+        // Check if the current block and the block above are not solid (so player can stand)
+        if (!location.getBlock().getType().isAir() || !location.clone().add(0, 1, 0).getBlock().getType().isAir()) {
+            return false;
+        }
+
+        // Check for dangerous blocks (lava, fire, etc.)
+        String blockType = below.getBlock().getType().toString();
+        if (blockType.contains("LAVA") || blockType.contains("FIRE") || blockType.contains("MAGMA")) {
+            return false;
+        }
+
+        return true;
+    }
+}
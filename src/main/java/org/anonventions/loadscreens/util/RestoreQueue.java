@@ -0,0 +1,112 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Spreads player restoration over several ticks so that ending a large batch of loadscreens at once
+// (e.g. a scheduled event) does not spike a single tick. Plans run in FIFO order under the
+// performance.restore_budget_ms budget. Main thread only.
+public class RestoreQueue {
+    private static final Map<UUID, RestorePlan> pending = new LinkedHashMap<>();
+    private static final Deque<RestorePlan> resyncs = new ArrayDeque<>();
+    private static final int RESYNC_DELAY_TICKS = 2;
+
+    private static BukkitRunnable task;
+    private static int currentTick;
+
+    public static void enqueue(RestorePlan plan) {
+        // The scheduler refuses new tasks while the plugin is disabling, so restore right away
+        if (!Loadscreens.getInstance().isEnabled()) {
+            plan.apply();
+            return;
+        }
+
+        pending.put(plan.getPlayer().getUniqueId(), plan);
+        ensureRunning();
+    }
+
+    // Takes back a plan that has not run yet, e.g. when a new session starts before the previous one
+    // was restored. The player is still locked down, so the captured state is still the real one.
+    public static RestorePlan take(Player player) {
+        return pending.remove(player.getUniqueId());
+    }
+
+    // Restores a player immediately, used when they are leaving and cannot wait for the queue
+    public static void flush(Player player) {
+        RestorePlan plan = pending.remove(player.getUniqueId());
+        if (plan != null) {
+            plan.apply();
+        }
+    }
+
+    public static void flushAll() {
+        for (RestorePlan plan : pending.values()) {
+            plan.apply();
+        }
+        pending.clear();
+        resyncs.clear();
+
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    public static int getPendingCount() {
+        return pending.size();
+    }
+
+    private static void ensureRunning() {
+        if (task != null) return;
+
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                process();
+            }
+        };
+        task.runTaskTimer(Loadscreens.getInstance(), 1L, 1L);
+    }
+
+    private static void process() {
+        currentTick++;
+        long budgetNanos = (long) (Loadscreens.getInstance().getConfig().getDouble("performance.restore_budget_ms", 2.0) * 1_000_000L);
+        long start = System.nanoTime();
+
+        // Resyncs are queued with a fixed delay, so the due ones are always at the front
+        while (!resyncs.isEmpty() && resyncs.peekFirst().getResyncDueTick() <= currentTick) {
+            resyncs.pollFirst().resyncInventory();
+        }
+
+        // Always restore at least one player per tick so the queue drains even with a tiny budget
+        Iterator<RestorePlan> iterator = pending.values().iterator();
+        int processed = 0;
+        while (iterator.hasNext() && (processed == 0 || System.nanoTime() - start < budgetNanos)) {
+            RestorePlan plan = iterator.next();
+            iterator.remove();
+            processed++;
+
+            if (plan.apply()) {
+                plan.setResyncDueTick(currentTick + RESYNC_DELAY_TICKS);
+                resyncs.addLast(plan);
+            }
+        }
+
+        if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false) && processed > 0) {
+            Loadscreens.getInstance().getLogger().info("Restored " + processed + " players this tick, " + pending.size() + " still queued");
+        }
+
+        if (pending.isEmpty() && resyncs.isEmpty()) {
+            task.cancel();
+            task = null;
+        }
+    }
+}
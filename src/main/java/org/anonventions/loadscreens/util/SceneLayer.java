@@ -0,0 +1,35 @@
+package org.anonventions.loadscreens.util;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.Color;
+import org.bukkit.entity.Display;
+import org.bukkit.util.Transformation;
+
+// One text layer of a loadscreen scene. Mirrors the TextDisplay setters the session uses, so the same
+// code drives a real entity or a client-side one.
+public interface SceneLayer {
+
+    void text(Component text);
+
+    void setTextOpacity(byte opacity);
+
+    Transformation getTransformation();
+
+    void setTransformation(Transformation transformation);
+
+    void setBillboard(Display.Billboard billboard);
+
+    void setSeeThrough(boolean seeThrough);
+
+    void setShadowed(boolean shadowed);
+
+    void setLineWidth(int width);
+
+    void setDefaultBackground(boolean defaultBackground);
+
+    void setBackgroundColor(Color color);
+
+    void setBrightness(Display.Brightness brightness);
+
+    void setGlowColorOverride(Color color);
+}
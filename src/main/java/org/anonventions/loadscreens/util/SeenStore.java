@@ -0,0 +1,280 @@
+package org.anonventions.loadscreens.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Persistent set of players who have seen one loadscreen type at one content version. Built for
+// millions of UUIDs without keeping them on the heap:
+//   <name>.dat  header (magic, format, count) then the UUIDs as sorted (msb, lsb) long pairs,
+//               memory-mapped read-only and binary searched
+//   <name>.log  UUIDs added since, 16 bytes each, merged into the .dat on the next load
+// A Bloom filter over the .dat answers most "never seen" checks without touching the map, and UUIDs
+// added while running live in a small concurrent set. Loading and prefetching run off the main thread.
+// A single mapping caps a store at 2 GB, about 130 million UUIDs.
+public class SeenStore {
+    private static final int MAGIC = 0x4C53534E; // "LSSN"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int BLOOM_BITS_PER_ENTRY = 10; // ~1% false positives with 7 hashes
+    private static final int BLOOM_HASHES = 7;
+
+    private final Path dataFile;
+    private final Path logFile;
+
+    private final Set<UUID> added = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Boolean> prefetched = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+    private MappedByteBuffer entries;
+    private long count;
+    private AtomicLongArray bloom;
+    private long bloomBits;
+    private FileChannel log;
+
+    public SeenStore(Path directory, String name) {
+        this.dataFile = directory.resolve(name + ".dat");
+        this.logFile = directory.resolve(name + ".log");
+    }
+
+    // Merges any log from the last run into the data file, maps it and builds the Bloom filter.
+    // Blocking; call off the main thread.
+    public synchronized void load() throws IOException {
+        if (loaded) return;
+        Files.createDirectories(dataFile.getParent());
+
+        List<long[]> logged = readLog();
+        if (!logged.isEmpty()) {
+            merge(logged);
+            Files.deleteIfExists(logFile);
+        }
+
+        if (Files.exists(dataFile)) {
+            try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+                entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            if (entries.getInt(0) != MAGIC || entries.getInt(4) != FORMAT) {
+                throw new IOException("Not a seen store: " + dataFile);
+            }
+            count = entries.getLong(8);
+        }
+
+        bloomBits = Math.max(64, count * BLOOM_BITS_PER_ENTRY);
+        AtomicLongArray bits = new AtomicLongArray((int) ((bloomBits + 63) >>> 6));
+        for (long i = 0; i < count; i++) {
+            setBloom(bits, msbAt(i), lsbAt(i));
+        }
+        bloom = bits;
+
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public long size() {
+        return count + added.size();
+    }
+
+    // Looks the player up ahead of time so the check on the trigger path is a map read. Blocking
+    // if the store is still loading; call from pre-login.
+    public void prefetch(UUID player) {
+        prefetched.put(player, lookup(player));
+    }
+
+    public void forget(UUID player) {
+        prefetched.remove(player);
+    }
+
+    public boolean hasSeen(UUID player) {
+        if (added.contains(player)) return true;
+
+        Boolean known = prefetched.get(player);
+        if (known != null) return known;
+
+        // Not prefetched, e.g. a type turned on after they joined. Without the data all we know is this run.
+        return loaded && lookup(player);
+    }
+
+    // Returns false if they had already been seen. The log write is left to the caller's thread.
+    public boolean markSeen(UUID player) {
+        if (hasSeen(player)) return false;
+        added.add(player);
+        return true;
+    }
+
+    public void appendToLog(UUID player) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(player.getMostSignificantBits()).putLong(player.getLeastSignificantBits()).flip();
+        synchronized (this) {
+            if (log == null) return;
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        }
+    }
+
+    public synchronized void close() {
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException ignored) {
+            }
+            log = null;
+        }
+        prefetched.clear();
+    }
+
+    private boolean lookup(UUID player) {
+        if (added.contains(player)) return true;
+        if (count == 0) return false;
+
+        long msb = player.getMostSignificantBits();
+        long lsb = player.getLeastSignificantBits();
+        if (!mightContain(msb, lsb)) return false;
+
+        long low = 0, high = count - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int cmp = compare(msbAt(mid), lsbAt(mid), msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long msbAt(long index) {
+        return entries.getLong((int) (HEADER_BYTES + index * 16));
+    }
+
+    private long lsbAt(long index) {
+        return entries.getLong((int) (HEADER_BYTES + index * 16 + 8));
+    }
+
+    private static int compare(long msbA, long lsbA, long msbB, long lsbB) {
+        int cmp = Long.compare(msbA, msbB);
+        return cmp != 0 ? cmp : Long.compare(lsbA, lsbB);
+    }
+
+    // Double hashing: index i is h1 + i * h2
+    private void setBloom(AtomicLongArray bits, long msb, long lsb) {
+        long h1 = mix(msb ^ lsb);
+        long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bloomBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+            } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(long msb, long lsb) {
+        long h1 = mix(msb ^ lsb);
+        long h2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bloomBits);
+            if ((bloom.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private List<long[]> readLog() throws IOException {
+        List<long[]> logged = new ArrayList<>();
+        if (!Files.exists(logFile)) return logged;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+            while (true) {
+                long msb = in.readLong();
+                long lsb = in.readLong();
+                logged.add(new long[]{msb, lsb});
+            }
+        } catch (EOFException ignored) {
+            // End of log, or a torn last entry from a crash
+        }
+        return logged;
+    }
+
+    // Streams the old data file and the sorted log into a new data file, dropping duplicates
+    private void merge(List<long[]> logged) throws IOException {
+        logged.sort((a, b) -> compare(a[0], a[1], b[0], b[1]));
+
+        Path temp = dataFile.resolveSibling(dataFile.getFileName() + ".tmp");
+        long written = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)));
+             DataInputStream in = Files.exists(dataFile) ? new DataInputStream(new BufferedInputStream(Files.newInputStream(dataFile))) : null) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(0); // Count, patched below
+
+            long remaining = 0;
+            if (in != null) {
+                if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                    throw new IOException("Not a seen store: " + dataFile);
+                }
+                remaining = in.readLong();
+            }
+
+            long[] last = null;
+            long[] next = remaining > 0 ? new long[]{in.readLong(), in.readLong()} : null;
+            remaining--;
+            int logIndex = 0;
+            while (next != null || logIndex < logged.size()) {
+                long[] pick;
+                if (next != null && (logIndex >= logged.size() || compare(next[0], next[1], logged.get(logIndex)[0], logged.get(logIndex)[1]) <= 0)) {
+                    pick = next;
+                    next = remaining > 0 ? new long[]{in.readLong(), in.readLong()} : null;
+                    remaining--;
+                } else {
+                    pick = logged.get(logIndex++);
+                }
+
+                if (last == null || compare(last[0], last[1], pick[0], pick[1]) != 0) {
+                    out.writeLong(pick[0]);
+                    out.writeLong(pick[1]);
+                    written++;
+                    last = pick;
+                }
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(8).putLong(written);
+            header.flip();
+            channel.write(header, 8);
+        }
+        Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
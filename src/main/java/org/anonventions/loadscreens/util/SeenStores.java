@@ -0,0 +1,115 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+// One SeenStore per show_once type and content_version, stored under plugins/Loadscreens/seen. Stores
+// load asynchronously on enable; pre-login waits for them and prefetches the joining player, so the
+// check when a loadscreen triggers never touches the disk.
+public class SeenStores {
+    private static final Map<String, SeenStore> stores = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Void>> loading = new ConcurrentHashMap<>();
+
+    public static void loadConfigured() {
+        ConfigurationSection types = Loadscreens.getInstance().getConfig().getConfigurationSection("loadscreen_types");
+        if (types == null) return;
+
+        for (String type : types.getKeys(false)) {
+            if (types.getBoolean(type + ".show_once", false)) {
+                get(type, types.getInt(type + ".content_version", 1));
+            }
+        }
+    }
+
+    // Called from AsyncPlayerPreLoginEvent
+    public static void prefetch(UUID player) {
+        for (Map.Entry<String, SeenStore> entry : stores.entrySet()) {
+            CompletableFuture<Void> load = loading.get(entry.getKey());
+            if (load == null) continue;
+            try {
+                load.join();
+            } catch (RuntimeException e) {
+                continue; // Already logged
+            }
+            entry.getValue().prefetch(player);
+        }
+    }
+
+    public static void forget(UUID player) {
+        for (SeenStore store : stores.values()) {
+            store.forget(player);
+        }
+    }
+
+    public static boolean hasSeen(String type, int version, UUID player) {
+        return get(type, version).hasSeen(player);
+    }
+
+    public static void markSeen(String type, int version, UUID player) {
+        SeenStore store = get(type, version);
+        if (!store.markSeen(player)) return;
+
+        // Appended once the store is open; the log keeps it if the server stops before the next merge
+        loading.get(key(type, version)).thenRun(() -> Bukkit.getScheduler().runTaskAsynchronously(Loadscreens.getInstance(), () -> {
+            try {
+                store.appendToLog(player);
+            } catch (IOException e) {
+                Loadscreens.getInstance().getLogger().log(Level.WARNING, "Failed to record seen loadscreen '" + type + "' for " + player, e);
+            }
+        }));
+    }
+
+    public static long size(String type, int version) {
+        SeenStore store = stores.get(key(type, version));
+        return store != null ? store.size() : 0;
+    }
+
+    public static void closeAll() {
+        for (SeenStore store : stores.values()) {
+            store.close();
+        }
+        stores.clear();
+        loading.clear();
+    }
+
+    private static synchronized SeenStore get(String type, int version) {
+        String key = key(type, version);
+        SeenStore existing = stores.get(key);
+        if (existing != null) return existing;
+
+        Path directory = Loadscreens.getInstance().getDataFolder().toPath().resolve("seen");
+        SeenStore store = new SeenStore(directory, key);
+        CompletableFuture<Void> load = new CompletableFuture<>();
+        loading.put(key, load);
+        stores.put(key, store);
+
+        Bukkit.getScheduler().runTaskAsynchronously(Loadscreens.getInstance(), () -> {
+            try {
+                long start = System.nanoTime();
+                store.load();
+                if (Loadscreens.getInstance().getConfig().getBoolean("global.debug", false)) {
+                    Loadscreens.getInstance().getLogger().info("Loaded seen store '" + key + "' with " + store.size() +
+                            " players in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+                load.complete(null);
+            } catch (IOException e) {
+                Loadscreens.getInstance().getLogger().log(Level.SEVERE, "Failed to load seen store '" + key + "'", e);
+                load.completeExceptionally(e);
+            }
+        });
+        return store;
+    }
+
+    private static String key(String type, int version) {
+        return type + "-v" + version;
+    }
+}
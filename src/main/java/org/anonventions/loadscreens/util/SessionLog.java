@@ -0,0 +1,203 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.api.SessionResult;
+import org.anonventions.loadscreens.core.Loadscreens;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+
+// Append-only binary log of session outcomes under plugins/Loadscreens/analytics. Records are encoded
+// on the caller's thread and written in batches by an async task; sessions.bin rotates to
+// sessions-<millis>.bin past analytics.max_file_kb, keeping analytics.max_files rotated files.
+//
+// File: int magic, int format, then records of
+//   long   end time (epoch millis)
+//   UTF    type
+//   byte   SessionResult.Status ordinal
+//   UTF    reason, empty for a normal end
+//   int    requested delay (ticks)
+//   int    queue delay, request to start or rejection (ms)
+//   int    requested duration (ticks)
+//   int    actual time shown (ticks)
+//   short  ping at start (ms)
+//   short  average tick time at start (tenths of a ms)
+public class SessionLog {
+    static final int MAGIC = 0x4C53414E; // "LSAN"
+    static final int FORMAT = 1;
+    static final String CURRENT = "sessions.bin";
+    static final String ROTATED_PREFIX = "sessions-";
+
+    private static final Queue<byte[]> pending = new ConcurrentLinkedQueue<>();
+
+    private static volatile boolean enabled;
+    private static Path directory;
+    private static long maxBytes;
+    private static int maxFiles;
+    private static FileChannel channel;
+    private static BukkitRunnable task;
+
+    public static void start() {
+        var config = Loadscreens.getInstance().getConfig();
+        enabled = config.getBoolean("analytics.enabled", true);
+        if (!enabled) return;
+
+        directory = getDirectory();
+        maxBytes = Math.max(1, config.getLong("analytics.max_file_kb", 8192)) * 1024L;
+        maxFiles = Math.max(1, config.getInt("analytics.max_files", 8));
+        long interval = Math.max(1, config.getLong("analytics.flush_interval_ticks", 100));
+
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+        task.runTaskTimerAsynchronously(Loadscreens.getInstance(), interval, interval);
+    }
+
+    public static void shutdown() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        flush();
+        synchronized (SessionLog.class) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                channel = null;
+            }
+        }
+        enabled = false;
+    }
+
+    public static Path getDirectory() {
+        return Loadscreens.getInstance().getDataFolder().toPath().resolve("analytics");
+    }
+
+    public static void record(String type, SessionResult.Status status, String reason, int requestedDelayTicks,
+                              long queueDelayMillis, int requestedTicks, int actualTicks, int ping, double tickTime) {
+        if (!enabled) return;
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(System.currentTimeMillis());
+            out.writeUTF(type);
+            out.writeByte(status.ordinal());
+            out.writeUTF(reason != null ? reason : "");
+            out.writeInt(requestedDelayTicks);
+            out.writeInt((int) Math.min(Integer.MAX_VALUE, Math.max(0, queueDelayMillis)));
+            out.writeInt(requestedTicks);
+            out.writeInt(actualTicks);
+            out.writeShort(Math.max(0, Math.min(Short.MAX_VALUE, ping)));
+            out.writeShort((int) Math.max(0, Math.min(Short.MAX_VALUE, Math.round(tickTime * 10))));
+            pending.add(bytes.toByteArray());
+        } catch (IOException e) {
+            // Writing to memory doesn't fail
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Writes everything queued so far in one batch
+    public static synchronized void flush() {
+        if (pending.isEmpty() || directory == null) return;
+
+        List<byte[]> batch = new ArrayList<>();
+        int size = 0;
+        byte[] record;
+        while ((record = pending.poll()) != null) {
+            batch.add(record);
+            size += record.length;
+        }
+
+        try {
+            if (channel == null) {
+                channel = open();
+            }
+            if (channel.size() > 8 && channel.size() + size > maxBytes) {
+                rotate();
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            for (byte[] bytes : batch) {
+                buffer.put(bytes);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            Loadscreens.getInstance().getLogger().log(Level.WARNING, "Failed to write " + batch.size() + " session records", e);
+        }
+    }
+
+    // Rotated files oldest first, then the current one
+    public static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return files;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, ROTATED_PREFIX + "*.bin")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        files.sort((a, b) -> Long.compare(rotatedAt(a), rotatedAt(b)));
+
+        Path current = directory.resolve(CURRENT);
+        if (Files.exists(current)) {
+            files.add(current);
+        }
+        return files;
+    }
+
+    private static FileChannel open() throws IOException {
+        Files.createDirectories(directory);
+        FileChannel opened = FileChannel.open(directory.resolve(CURRENT),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (opened.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(8).putInt(MAGIC).putInt(FORMAT);
+            header.flip();
+            opened.write(header);
+        }
+        return opened;
+    }
+
+    private static void rotate() throws IOException {
+        channel.close();
+        channel = null;
+        Files.move(directory.resolve(CURRENT), directory.resolve(ROTATED_PREFIX + System.currentTimeMillis() + ".bin"));
+
+        List<Path> rotated = files(directory);
+        rotated.remove(directory.resolve(CURRENT));
+        for (int i = 0; i < rotated.size() - maxFiles; i++) {
+            Files.deleteIfExists(rotated.get(i));
+        }
+
+        channel = open();
+    }
+
+    private static long rotatedAt(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(ROTATED_PREFIX.length(), name.length() - 4));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
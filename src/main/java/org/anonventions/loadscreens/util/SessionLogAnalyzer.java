@@ -0,0 +1,209 @@
+package org.anonventions.loadscreens.util;
+
+import org.anonventions.loadscreens.api.SessionResult;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Streams the session log one record at a time into fixed-size histograms, so memory stays flat no
+// matter how large the log has grown. Run it off the main thread.
+public class SessionLogAnalyzer {
+    private static final String ALL = "*";
+    private static final double[] LOAD_BANDS = {30, 45, 50};   // Average tick time, ms
+    private static final String[] LOAD_LABELS = {"<30ms", "30-45ms", "45-50ms", ">=50ms"};
+    private static final int MAX_REASONS = 32;
+
+    private final Map<String, TypeStats> byType = new TreeMap<>();
+    private final Histogram[] queueByLoad = new Histogram[LOAD_LABELS.length];
+    private int files;
+    private long records;
+
+    public SessionLogAnalyzer() {
+        for (int i = 0; i < queueByLoad.length; i++) {
+            queueByLoad[i] = new Histogram();
+        }
+    }
+
+    // Only records of the given type count, or all if null
+    public List<String> analyze(Path directory, String typeFilter) throws IOException {
+        for (Path file : SessionLog.files(directory)) {
+            read(file, typeFilter);
+        }
+        return report();
+    }
+
+    private void read(Path file, String typeFilter) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != SessionLog.MAGIC || in.readInt() != SessionLog.FORMAT) return;
+            files++;
+
+            while (true) {
+                in.readLong(); // End time
+                String type = in.readUTF();
+                int status = in.readUnsignedByte();
+                String reason = in.readUTF();
+                in.readInt(); // Requested delay
+                int queueDelay = in.readInt();
+                int requestedTicks = in.readInt();
+                int actualTicks = in.readInt();
+                int ping = in.readShort();
+                double tickTime = in.readShort() / 10.0;
+
+                if (typeFilter != null && !typeFilter.equalsIgnoreCase(type)) continue;
+                if (status >= SessionResult.Status.values().length) continue;
+                records++;
+
+                SessionResult.Status outcome = SessionResult.Status.values()[status];
+                add(byType.computeIfAbsent(ALL, t -> new TypeStats()), outcome, reason, queueDelay, requestedTicks, actualTicks, ping);
+                add(byType.computeIfAbsent(type, t -> new TypeStats()), outcome, reason, queueDelay, requestedTicks, actualTicks, ping);
+
+                if (outcome != SessionResult.Status.REJECTED) {
+                    queueByLoad[loadBand(tickTime)].add(queueDelay);
+                }
+            }
+        } catch (EOFException ignored) {
+            // End of file, or a record cut short by a crash
+        }
+    }
+
+    private static void add(TypeStats stats, SessionResult.Status outcome, String reason, int queueDelay,
+                            int requestedTicks, int actualTicks, int ping) {
+        stats.outcomes[outcome.ordinal()]++;
+        if (outcome == SessionResult.Status.REJECTED) {
+            stats.count(stats.rejectReasons, reason);
+            return;
+        }
+
+        if (outcome == SessionResult.Status.ABORTED) {
+            stats.count(stats.abortReasons, reason);
+        }
+        stats.shown.add(actualTicks);
+        stats.queue.add(queueDelay);
+        stats.ping.add(ping);
+        stats.requestedTicks += requestedTicks;
+    }
+
+    private static int loadBand(double tickTime) {
+        for (int i = 0; i < LOAD_BANDS.length; i++) {
+            if (tickTime < LOAD_BANDS[i]) return i;
+        }
+        return LOAD_BANDS.length;
+    }
+
+    private List<String> report() {
+        List<String> lines = new ArrayList<>();
+        if (records == 0) {
+            lines.add("No session records found (" + files + " log files).");
+            return lines;
+        }
+
+        lines.add(records + " session records from " + files + " log files");
+        for (Map.Entry<String, TypeStats> entry : byType.entrySet()) {
+            TypeStats stats = entry.getValue();
+            long started = stats.outcomes[0] + stats.outcomes[1];
+            lines.add((ALL.equals(entry.getKey()) ? "All types" : "Type " + entry.getKey()) + ": " +
+                    stats.outcomes[0] + " ended, " + stats.outcomes[1] + " aborted, " + stats.outcomes[2] + " rejected" +
+                    (started > 0 ? " (" + percent(stats.outcomes[1], started) + " of started aborted)" : ""));
+            if (started > 0) {
+                lines.add("  Shown ticks " + stats.shown.summary() + ", requested avg " + (stats.requestedTicks / started));
+                lines.add("  Queue delay ms " + stats.queue.summary());
+                lines.add("  Ping ms " + stats.ping.summary());
+            }
+            if (!stats.abortReasons.isEmpty()) {
+                lines.add("  Aborted: " + reasons(stats.abortReasons));
+            }
+            if (!stats.rejectReasons.isEmpty()) {
+                lines.add("  Rejected: " + reasons(stats.rejectReasons));
+            }
+        }
+
+        lines.add("Queue delay ms by average tick time at start:");
+        for (int i = 0; i < queueByLoad.length; i++) {
+            if (queueByLoad[i].count > 0) {
+                lines.add("  " + LOAD_LABELS[i] + ": " + queueByLoad[i].summary());
+            }
+        }
+        return lines;
+    }
+
+    private static String percent(long part, long total) {
+        return String.format("%.1f%%", part * 100.0 / total);
+    }
+
+    private static String reasons(Map<String, Long> reasons) {
+        StringBuilder builder = new StringBuilder();
+        reasons.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+                .forEach(e -> builder.append(builder.length() > 0 ? ", " : "").append(e.getKey()).append(' ').append(e.getValue()));
+        return builder.toString();
+    }
+
+    private static class TypeStats {
+        final long[] outcomes = new long[SessionResult.Status.values().length];
+        final Histogram shown = new Histogram();
+        final Histogram queue = new Histogram();
+        final Histogram ping = new Histogram();
+        final Map<String, Long> abortReasons = new HashMap<>();
+        final Map<String, Long> rejectReasons = new HashMap<>();
+        long requestedTicks;
+
+        // Reasons are a small fixed set in practice; anything past the cap is lumped together
+        void count(Map<String, Long> reasons, String reason) {
+            String key = reason.isEmpty() ? "unknown" : reason;
+            if (!reasons.containsKey(key) && reasons.size() >= MAX_REASONS) {
+                key = "other";
+            }
+            reasons.merge(key, 1L, Long::sum);
+        }
+    }
+
+    // Log-linear buckets: exact below 64, then 32 buckets per power of two (about 3% error)
+    private static class Histogram {
+        private static final int SUB_BUCKETS = 32;
+        private final long[] buckets = new long[64 + 26 * SUB_BUCKETS];
+        long count;
+        long max;
+
+        void add(long value) {
+            value = Math.max(0, value);
+            buckets[index(value)]++;
+            count++;
+            max = Math.max(max, value);
+        }
+
+        private static int index(long value) {
+            if (value < 64) return (int) value;
+            int shift = 63 - Long.numberOfLeadingZeros(value) - 5;
+            return 64 + (shift - 1) * SUB_BUCKETS + (int) ((value >> shift) - SUB_BUCKETS);
+        }
+
+        private static long lowerBound(int index) {
+            if (index < 64) return index;
+            int shift = (index - 64) / SUB_BUCKETS + 1;
+            return (long) ((index - 64) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        }
+
+        long percentile(double p) {
+            long rank = (long) Math.ceil(count * p);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && buckets[i] > 0) return Math.min(max, lowerBound(i));
+            }
+            return max;
+        }
+
+        String summary() {
+            return "p50 " + percentile(0.50) + ", p90 " + percentile(0.90) + ", p99 " + percentile(0.99) + ", max " + max;
+        }
+    }
+}